@@ -0,0 +1,73 @@
+package com.example.tryme.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import com.example.tryme.aspect.AsyncTraceLog;
+import com.example.tryme.aspect.LoggingAspect;
+import com.example.tryme.aspect.MethodProfiler;
+import com.example.tryme.aspect.ProfilingAspect;
+import com.example.tryme.config.CacheProperties;
+import com.example.tryme.config.LoggingAspectProperties;
+import com.example.tryme.config.ProfilerProperties;
+import com.example.tryme.services.CacheService;
+
+// Цена LoggingAspect и ProfilingAspect на вызов сервиса с настройками из application.properties.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AspectOverheadBenchmark {
+    @Param({"none", "logging", "profiling", "both"})
+    public String aspects;
+
+    private CacheService cacheService;
+    private AsyncTraceLog traceLog;
+
+    @Setup
+    public void setUp() {
+        CacheService target = new CacheService(new CacheProperties());
+        target.putToCache("products", "id:1", List.of("Apple"));
+
+        LoggingAspectProperties logging = new LoggingAspectProperties();
+        logging.setMode(LoggingAspectProperties.Mode.SAMPLED);
+        logging.setServiceSampleRate(0.1);
+        traceLog = new AsyncTraceLog(logging);
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        if (aspects.equals("logging") || aspects.equals("both")) {
+            factory.addAspect(new LoggingAspect(logging, traceLog));
+        }
+        if (aspects.equals("profiling") || aspects.equals("both")) {
+            factory.addAspect(new ProfilingAspect(new MethodProfiler(new ProfilerProperties())));
+        }
+        cacheService = aspects.equals("none") ? target : factory.getProxy();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        traceLog.close();
+    }
+
+    @Benchmark
+    public List<String> serviceCall() {
+        return cacheService.getFromCache("products", "id:1");
+    }
+}
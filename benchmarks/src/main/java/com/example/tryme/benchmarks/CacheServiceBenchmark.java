@@ -0,0 +1,101 @@
+package com.example.tryme.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.tryme.config.CacheProperties;
+import com.example.tryme.services.CacheService;
+
+// CacheService под конкурентной нагрузкой: чтение и запись в 4 потока, смешанная нагрузка 3:1
+// и очистка пространства на фоне читателей.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheServiceBenchmark {
+    private static final int KEYS = 1024;
+    private static final String CACHE = "products";
+
+    private final String[] keys = new String[KEYS];
+    private final List<String> value = List.of("Apple", "Pear");
+    private CacheService cacheService;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int nextIndex() {
+            next = (next + 1) & (KEYS - 1);
+            return next;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        cacheService = new CacheService(new CacheProperties());
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "id:" + i;
+            cacheService.putToCache(CACHE, keys[i], value, List.of((long) i));
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<String> get(Cursor cursor) {
+        return cacheService.getFromCache(CACHE, keys[cursor.nextIndex()]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void put(Cursor cursor) {
+        int i = cursor.nextIndex();
+        cacheService.putToCache(CACHE, keys[i], value, List.of((long) i));
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public List<String> mixedGet(Cursor cursor) {
+        return cacheService.getFromCache(CACHE, keys[cursor.nextIndex()]);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void mixedPut(Cursor cursor) {
+        int i = cursor.nextIndex();
+        cacheService.putToCache(CACHE, keys[i], value, List.of((long) i));
+    }
+
+    @Benchmark
+    @Group("clearing")
+    @GroupThreads(3)
+    public List<String> clearingGet(Cursor cursor) {
+        return cacheService.getFromCache(CACHE, keys[cursor.nextIndex()]);
+    }
+
+    @Benchmark
+    @Group("clearing")
+    @GroupThreads(1)
+    public void clearingClear(Cursor cursor) {
+        cacheService.clearCache(CACHE);
+        int i = cursor.nextIndex();
+        cacheService.putToCache(CACHE, keys[i], value, List.of((long) i));
+    }
+}
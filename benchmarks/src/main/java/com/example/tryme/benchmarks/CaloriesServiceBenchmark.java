@@ -0,0 +1,130 @@
+package com.example.tryme.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.tryme.Model.Meal;
+import com.example.tryme.Model.Product;
+import com.example.tryme.Repository.MealProductRepository;
+import com.example.tryme.Repository.MealRepository;
+import com.example.tryme.Repository.NutritionLookupRepository;
+import com.example.tryme.Repository.ProductRepository;
+import com.example.tryme.client.CalorieApiClient;
+import com.example.tryme.client.StubCalorieServer;
+import com.example.tryme.config.CacheProperties;
+import com.example.tryme.config.CaloriesProperties;
+import com.example.tryme.services.CacheService;
+import com.example.tryme.services.CaloriesService;
+import com.example.tryme.services.MealCompositionWriter;
+import com.example.tryme.services.MealService;
+import com.example.tryme.services.ProductNameIndex;
+import com.example.tryme.services.ProductService;
+
+// calculateCalories целиком на заглушках: без базы и сети остаются разбор ответа, поиск по индексу названий,
+// сборка состава и работа с кэшем. uncached каждый раз идет во "внешний API", cached попадает в кэш расчетов.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CaloriesServiceBenchmark {
+    private static final String[] CATALOG = {"apple", "pear", "rice", "chicken breast", "broccoli", "olive oil",
+        "bread", "milk"};
+
+    @Param({"1", "5"})
+    public int items;
+
+    private CaloriesService caloriesService;
+    private CacheService cacheService;
+    private String[] food;
+    private Integer[] gram;
+
+    @Setup
+    public void setUp() {
+        Map<Long, Product> products = new HashMap<>();
+        List<Object[]> names = new ArrayList<>();
+        for (int i = 0; i < CATALOG.length; i++) {
+            Product product = new Product(CATALOG[i], 50 + i * 40);
+            product.setId(i + 1L);
+            products.put(product.getId(), product);
+            names.add(new Object[] {product.getId(), product.getName()});
+        }
+        AtomicLong ids = new AtomicLong();
+
+        ProductRepository productRepository = Stubs.repository(ProductRepository.class, Map.of(
+                "findAllIdsAndNames", args -> names,
+                "findById", args -> Optional.ofNullable(products.get((Long) args[0]))));
+        MealRepository mealRepository = Stubs.repository(MealRepository.class, Map.of(
+                "save", args -> {
+                    Meal meal = (Meal) args[0];
+                    meal.setId(ids.incrementAndGet());
+                    return meal;
+                }));
+        MealProductRepository mealProductRepository = Stubs.repository(MealProductRepository.class, Map.of(
+                "saveAll", args -> args[0]));
+        NutritionLookupRepository nutritionLookupRepository = Stubs.repository(NutritionLookupRepository.class, Map.of(
+                "save", args -> args[0]));
+        CalorieApiClient calorieApiClient = new CalorieApiClient() {
+            @Override
+            public String search(String term) {
+                return StubCalorieServer.responseFor(term);
+            }
+
+            @Override
+            public Map<String, Object> getStatistics() {
+                return Map.of();
+            }
+        };
+
+        cacheService = new CacheService(new CacheProperties());
+        ProductNameIndex productNameIndex = new ProductNameIndex(productRepository);
+        MealService mealService = new MealService(mealRepository, cacheService);
+        ProductService productService = new ProductService(productRepository, cacheService, productNameIndex, mealService);
+        MealCompositionWriter writer = new MealCompositionWriter(mealRepository, productRepository,
+                mealProductRepository, productNameIndex);
+        caloriesService = new CaloriesService(mealRepository, mealProductRepository, cacheService, productService,
+                mealService, writer, productNameIndex, nutritionLookupRepository, calorieApiClient, new CaloriesProperties());
+
+        food = new String[items];
+        gram = new Integer[items];
+        for (int i = 0; i < items; i++) {
+            food[i] = CATALOG[i];
+            gram[i] = 100 + i * 25;
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        caloriesService.shutdown();
+    }
+
+    @Benchmark
+    public List<String> uncached() {
+        cacheService.clearCache("calories");
+        return caloriesService.calculateCalories(items, food, gram);
+    }
+
+    @Benchmark
+    public List<String> cached() {
+        return caloriesService.calculateCalories(items, food, gram);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.tryme.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.example.tryme.client.NutritionResponseParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Разбор ответа calculat.ru: прежний путь fetchNutrition (строка ответа, новый ObjectMapper на вызов, дерево readTree
+// и чтение results[0]) против потокового NutritionResponseParser по байтам ответа.
+// resultCount - сколько совпадений вернул внешний сервис.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonParsingBenchmark {
+
+    @Param({"1", "50", "500"})
+    public int resultCount;
+
+    private final ObjectMapper sharedMapper = new ObjectMapper();
+    private String body;
+    private byte[] bodyBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (int i = 0; i < resultCount; i++) {
+            Map<String, Object> match = new LinkedHashMap<>();
+            match.put("text", "Chicken breast, variant " + i);
+            match.put("cal", 110 + i % 90);
+            match.put("prot", 23.1);
+            match.put("fat", 1.9);
+            match.put("carb", 0.0);
+            results.add(match);
+        }
+        body = sharedMapper.writeValueAsString(Map.of("results", results));
+        bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public void treeModelNewMapper(Blackhole blackhole) throws Exception {
+        readFirst(new ObjectMapper().readTree(body), blackhole);
+    }
+
+    @Benchmark
+    public void treeModelSharedMapper(Blackhole blackhole) throws Exception {
+        readFirst(sharedMapper.readTree(body), blackhole);
+    }
+
+    @Benchmark
+    public NutritionResponseParser.Match streaming() throws Exception {
+        return NutritionResponseParser.parseFirst(new ByteArrayInputStream(bodyBytes));
+    }
+
+    private static void readFirst(JsonNode root, Blackhole blackhole) {
+        JsonNode match = root.get("results").get(0);
+        blackhole.consume(match.get("text").asText());
+        blackhole.consume(match.get("cal").asInt());
+    }
+}
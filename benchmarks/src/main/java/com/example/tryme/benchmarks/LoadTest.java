@@ -0,0 +1,336 @@
+package com.example.tryme.benchmarks;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import com.example.tryme.TrymeApplication;
+import com.example.tryme.Model.Product;
+import com.example.tryme.Repository.ProductRepository;
+import com.example.tryme.benchmarks.Workload.Operation;
+import com.example.tryme.client.CalorieApiClient;
+import com.example.tryme.client.StubCalorieServer;
+import com.example.tryme.services.LatencyHistogram;
+import com.example.tryme.services.MealCompositionWriter;
+import com.example.tryme.services.ProductNameIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+// Офлайн-нагрузочный тест: приложение на H2 в памяти и StubCalorieServer вместо calculat.ru в одном процессе.
+// Нагрузка открытая - запросы уходят с заданной частотой независимо от ответов, а задержка считается
+// от запланированного момента отправки, поэтому отставание генератора не прячет очередь в приложении.
+//
+// java -cp target/benchmarks.jar com.example.tryme.benchmarks.LoadTest --rate=200 --duration=60s
+// Неизвестные опции (--app.*, --spring.*, --server.*, --logging.*) передаются приложению.
+public final class LoadTest {
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("rate", "50");
+        DEFAULTS.put("duration", "30s");
+        DEFAULTS.put("warmup", "10s");
+        DEFAULTS.put("timeout", "10s");
+        DEFAULTS.put("max-in-flight", "512");
+        DEFAULTS.put("mix", "");
+        DEFAULTS.put("products", "500");
+        DEFAULTS.put("meals", "200");
+        DEFAULTS.put("vocabulary", "2000");
+        DEFAULTS.put("unknown-rate", "0.05");
+        DEFAULTS.put("max-items", "4");
+        DEFAULTS.put("stub-latency", "lognormal:80/600");
+        DEFAULTS.put("stub-error-rate", "0.01");
+        DEFAULTS.put("out", "");
+    }
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>(DEFAULTS);
+        List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            String name = arg.startsWith("--") && equals > 2 ? arg.substring(2, equals) : null;
+            if (name != null && options.containsKey(name)) {
+                options.put(name, arg.substring(equals + 1));
+            } else if (name != null && name.matches("(app|spring|server|logging)\\..+")) {
+                applicationArgs.add(arg);
+            } else {
+                System.err.println("Unknown option " + arg + ", supported: " + DEFAULTS.keySet()
+                        + " and --app.*/--spring.*/--server.*/--logging.* for the application");
+                System.exit(2);
+            }
+        }
+
+        double rate = Double.parseDouble(options.get("rate"));
+        Duration duration = DurationStyle.detectAndParse(options.get("duration"));
+        Duration warmup = DurationStyle.detectAndParse(options.get("warmup"));
+        Duration timeout = DurationStyle.detectAndParse(options.get("timeout"));
+        int maxInFlight = Integer.parseInt(options.get("max-in-flight"));
+        StubCalorieServer.Latency stubLatency = StubCalorieServer.Latency.parse(options.get("stub-latency"));
+        double stubErrorRate = Double.parseDouble(options.get("stub-error-rate"));
+        Map<Operation, Integer> weights = options.get("mix").isEmpty()
+                ? Workload.defaultWeights()
+                : Workload.parseWeights(options.get("mix"));
+
+        try (StubCalorieServer stub = new StubCalorieServer(0, stubLatency, stubErrorRate).start();
+             ConfigurableApplicationContext application = startApplication(stub.getUrl(), applicationArgs)) {
+            int port = ((WebServerApplicationContext) application).getWebServer().getPort();
+            List<Long> productIds = new ArrayList<>();
+            List<String> productNames = new ArrayList<>();
+            List<Long> mealIds = new ArrayList<>();
+            seed(application, Integer.parseInt(options.get("products")), Integer.parseInt(options.get("meals")),
+                    productIds, productNames, mealIds);
+
+            Workload workload = new Workload("http://localhost:" + port, timeout, productIds, productNames, mealIds,
+                    weights, Integer.parseInt(options.get("vocabulary")),
+                    Double.parseDouble(options.get("unknown-rate")), Integer.parseInt(options.get("max-items")));
+            System.out.printf("Load test: %.1f req/s for %s after %s warmup, stub latency %s, stub error rate %s%n",
+                    rate, duration, warmup, stubLatency, stubErrorRate);
+
+            Run run = new Run(workload, rate, warmup, duration, maxInFlight);
+            run.execute(timeout);
+
+            Map<String, Object> report = run.report();
+            report.put("stub", Map.of("requests", stub.getRequests(), "injectedErrors", stub.getInjectedErrors()));
+            report.put("externalApi", application.getBean(CalorieApiClient.class).getStatistics());
+            Map<String, Object> settings = new LinkedHashMap<>(options);
+            settings.put("applicationArgs", applicationArgs);
+            report.put("options", settings);
+            run.print(System.out);
+            System.out.printf("calorie stub: %d requests, %d injected errors%n", stub.getRequests(), stub.getInjectedErrors());
+            System.out.println("external api client: " + report.get("externalApi"));
+
+            File out = options.get("out").isEmpty() ? BenchmarkRunner.resultFile("loadtest-") : new File(options.get("out"));
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(out, report);
+            System.out.println("results: " + out.getPath());
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(String stubUrl, List<String> overrides) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.hibernate.ddl-auto=create-drop",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--app.db.align-sequences=false",
+                "--app.calories.api.url=" + stubUrl));
+        // Опции пользователя идут последними и перекрывают значения по умолчанию.
+        args.addAll(overrides);
+        return SpringApplication.run(TrymeApplication.class, args.toArray(String[]::new));
+    }
+
+    // Каталог и блюда записываются напрямую через репозиторий и MealCompositionWriter, минуя HTTP.
+    private static void seed(ConfigurableApplicationContext application, int productCount, int mealCount,
+                             List<Long> productIds, List<String> productNames, List<Long> mealIds) {
+        ProductRepository productRepository = application.getBean(ProductRepository.class);
+        ProductNameIndex productNameIndex = application.getBean(ProductNameIndex.class);
+        MealCompositionWriter writer = application.getBean(MealCompositionWriter.class);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        List<Product> catalog = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, productCount); i++) {
+            catalog.add(new Product("Catalog product " + i, random.nextInt(20, 700)));
+        }
+        for (Product product : productRepository.saveAll(catalog)) {
+            productNameIndex.put(product);
+            productIds.add(product.getId());
+            productNames.add(product.getName());
+        }
+        for (int i = 0; i < Math.max(1, mealCount); i++) {
+            List<MealCompositionWriter.Item> items = new ArrayList<>();
+            for (int j = random.nextInt(1, 6); j > 0; j--) {
+                Product product = catalog.get(random.nextInt(catalog.size()));
+                items.add(new MealCompositionWriter.Item(product, product.getName(), product.getCaloriesPer100g(),
+                        random.nextInt(20, 400)));
+            }
+            mealIds.add(writer.write("Seed meal " + i, items).meal().getId());
+        }
+    }
+
+    private static final class Run {
+        private final Workload workload;
+        private final double rate;
+        private final Duration warmup;
+        private final Duration duration;
+        private final int maxInFlight;
+        private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        private final OperationStats total = new OperationStats();
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder dropped = new LongAdder();
+        private long scheduled;
+
+        Run(Workload workload, double rate, Duration warmup, Duration duration, int maxInFlight) {
+            this.workload = workload;
+            this.rate = rate;
+            this.warmup = warmup;
+            this.duration = duration;
+            this.maxInFlight = maxInFlight;
+            for (Operation operation : Operation.values()) {
+                stats.put(operation, new OperationStats());
+            }
+        }
+
+        void execute(Duration timeout) throws InterruptedException {
+            ExecutorService callbacks = Executors.newFixedThreadPool(4, daemon("load-client-"));
+            HttpClient client = HttpClient.newBuilder().executor(callbacks).connectTimeout(timeout).build();
+            long start = System.nanoTime();
+            long measureFrom = start + warmup.toNanos();
+            long end = measureFrom + duration.toNanos();
+            double periodNanos = 1_000_000_000.0 / rate;
+            for (long i = 0; ; i++) {
+                long intended = start + (long) (i * periodNanos);
+                if (intended >= end) {
+                    break;
+                }
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Operation operation = workload.nextOperation();
+                boolean measured = intended >= measureFrom;
+                if (measured) {
+                    scheduled++;
+                }
+                if (inFlight.get() >= maxInFlight) {
+                    if (measured) {
+                        dropped.increment();
+                    }
+                    continue;
+                }
+                inFlight.incrementAndGet();
+                client.sendAsync(workload.request(operation), HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, error) -> {
+                            inFlight.decrementAndGet();
+                            if (measured) {
+                                long elapsed = System.nanoTime() - intended;
+                                int status = error == null ? response.statusCode() : -1;
+                                stats.get(operation).record(status, elapsed);
+                                total.record(status, elapsed);
+                            }
+                        });
+            }
+            long deadline = System.nanoTime() + timeout.toNanos() + 1_000_000_000L;
+            while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            callbacks.shutdownNow();
+        }
+
+        Map<String, Object> report() {
+            Map<String, Object> operations = new LinkedHashMap<>();
+            stats.forEach((operation, operationStats) -> {
+                if (operationStats.latency.getCount() > 0) {
+                    operations.put(operation.key(), operationStats.toMap(duration));
+                }
+            });
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("targetRate", rate);
+            report.put("scheduled", scheduled);
+            report.put("dropped", dropped.sum());
+            report.put("errorRate", errorRate());
+            report.put("total", total.toMap(duration));
+            report.put("operations", operations);
+            return report;
+        }
+
+        void print(PrintStream out) {
+            out.printf("%-20s %9s %9s %8s %8s %8s %8s %9s %9s %9s %9s%n", "operation", "requests", "rps",
+                    "2xx/3xx", "4xx", "5xx", "failed", "p50 ms", "p90 ms", "p99 ms", "max ms");
+            stats.forEach((operation, operationStats) -> {
+                if (operationStats.latency.getCount() > 0) {
+                    operationStats.print(out, operation.key(), duration);
+                }
+            });
+            total.print(out, "total", duration);
+            out.printf("scheduled %d, dropped at %d in flight: %d, error rate (5xx, failed, dropped): %.2f%%%n",
+                    scheduled, maxInFlight, dropped.sum(), errorRate() * 100);
+        }
+
+        private double errorRate() {
+            long errors = total.serverErrors.sum() + total.failed.sum() + dropped.sum();
+            return scheduled == 0 ? 0.0 : (double) errors / scheduled;
+        }
+
+        private static CustomizableThreadFactory daemon(String prefix) {
+            CustomizableThreadFactory factory = new CustomizableThreadFactory(prefix);
+            factory.setDaemon(true);
+            return factory;
+        }
+    }
+
+    // status -1 - запрос не получил ответа (таймаут, обрыв соединения).
+    private static final class OperationStats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+
+        void record(int status, long elapsedNanos) {
+            latency.record(elapsedNanos);
+            if (status < 0) {
+                failed.increment();
+            } else if (status >= 500) {
+                serverErrors.increment();
+            } else if (status >= 400) {
+                clientErrors.increment();
+            } else {
+                ok.increment();
+            }
+        }
+
+        Map<String, Object> toMap(Duration duration) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("requests", latency.getCount());
+            map.put("throughput", throughput(duration));
+            map.put("ok", ok.sum());
+            map.put("clientErrors", clientErrors.sum());
+            map.put("serverErrors", serverErrors.sum());
+            map.put("failed", failed.sum());
+            map.put("p50Ms", millis(latency.percentileMicros(0.5)));
+            map.put("p90Ms", millis(latency.percentileMicros(0.9)));
+            map.put("p99Ms", millis(latency.percentileMicros(0.99)));
+            map.put("p999Ms", millis(latency.percentileMicros(0.999)));
+            map.put("maxMs", millis(latency.getMaxMicros()));
+            return map;
+        }
+
+        void print(PrintStream out, String name, Duration duration) {
+            out.printf("%-20s %9d %9.1f %8d %8d %8d %8d %9.1f %9.1f %9.1f %9.1f%n", name, latency.getCount(),
+                    throughput(duration), ok.sum(), clientErrors.sum(), serverErrors.sum(), failed.sum(),
+                    millis(latency.percentileMicros(0.5)), millis(latency.percentileMicros(0.9)),
+                    millis(latency.percentileMicros(0.99)), millis(latency.getMaxMicros()));
+        }
+
+        private double throughput(Duration duration) {
+            return latency.getCount() * 1_000_000_000.0 / Math.max(1, duration.toNanos());
+        }
+
+        private static double millis(long micros) {
+            return micros / 1_000.0;
+        }
+    }
+}
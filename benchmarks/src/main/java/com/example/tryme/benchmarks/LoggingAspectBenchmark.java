@@ -0,0 +1,76 @@
+package com.example.tryme.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import com.example.tryme.aspect.AsyncTraceLog;
+import com.example.tryme.aspect.LoggingAspect;
+import com.example.tryme.config.CacheProperties;
+import com.example.tryme.config.LoggingAspectProperties;
+import com.example.tryme.services.CacheService;
+
+// Накладные расходы LoggingAspect на один вызов сервиса: попадание в кэш без прокси и через прокси с аспектом.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingAspectBenchmark {
+
+    @Param({"OFF", "SAMPLED", "FULL"})
+    public LoggingAspectProperties.Mode mode;
+
+    @Param({"true", "false"})
+    public boolean async;
+
+    private CacheService direct;
+    private CacheService proxied;
+    private AsyncTraceLog traceLog;
+
+    @Setup
+    public void setUp() {
+        direct = new CacheService(new CacheProperties());
+        direct.putToCache("products", "id:1", List.of("Apple"));
+
+        LoggingAspectProperties properties = new LoggingAspectProperties();
+        properties.setMode(mode);
+        properties.setServiceSampleRate(0.1);
+        properties.setAsync(async);
+        traceLog = new AsyncTraceLog(properties);
+
+        AspectJProxyFactory factory = new AspectJProxyFactory(direct);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new LoggingAspect(properties, traceLog));
+        proxied = factory.getProxy();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        traceLog.close();
+    }
+
+    @Benchmark
+    public List<String> direct() {
+        return direct.getFromCache("products", "id:1");
+    }
+
+    @Benchmark
+    public List<String> throughAspect() {
+        return proxied.getFromCache("products", "id:1");
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.tryme.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.tryme.services.RequestCounter;
+
+// Учет одного запроса в RequestCounter (его вызывает RequestMetricsFilter) из нескольких потоков Tomcat.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestMetricsBenchmark {
+    private static final String[] ENDPOINTS = {"/meals/{id}", "/products/{id}", "/meals/", "/products/"};
+
+    private final RequestCounter requestCounter = new RequestCounter();
+
+    @State(Scope.Thread)
+    public static class Request {
+        private int next;
+        private long durationNanos = 1_000_000;
+
+        String nextEndpoint() {
+            next = (next + 1) & (ENDPOINTS.length - 1);
+            return ENDPOINTS[next];
+        }
+
+        long nextDuration() {
+            durationNanos = durationNanos * 7 % 50_000_000 + 100_000;
+            return durationNanos;
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void record(Request request) {
+        requestCounter.record("GET", request.nextEndpoint(), 200, request.nextDuration());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.tryme.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+// Заглушки репозиториев без Mockito: вызов мока сам стоит микросекунды и исказил бы замер.
+// Методы без явного ответа возвращают пустое значение своего типа.
+final class Stubs {
+
+    private Stubs() {
+    }
+
+    static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (proxy, method, args) -> {
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer != null) {
+                return answer.apply(args);
+            }
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> type.getSimpleName() + " stub";
+                };
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType == Optional.class) {
+                return Optional.empty();
+            }
+            if (returnType.isAssignableFrom(List.class)) {
+                return List.of();
+            }
+            if (returnType == int.class || returnType == long.class) {
+                return returnType == int.class ? (Object) 0 : (Object) 0L;
+            }
+            if (returnType == boolean.class) {
+                return false;
+            }
+            return null;
+        }));
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.tryme.benchmarks;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Смесь запросов нагрузочного теста: операция выбирается по весу, id берутся из засеянных данных.
+final class Workload {
+
+    enum Operation {
+        PRODUCT_GET("product.get", 25),
+        PRODUCT_LIST("product.list", 10),
+        PRODUCT_CREATE("product.create", 5),
+        PRODUCT_UPDATE("product.update", 5),
+        MEAL_GET("meal.get", 15),
+        MEAL_CALORIES("meal.calories", 5),
+        MEAL_PRODUCT_CREATE("mealProduct.create", 5),
+        CALORIES("calories", 30);
+
+        private final String key;
+        private final int defaultWeight;
+
+        Operation(String key, int defaultWeight) {
+            this.key = key;
+            this.defaultWeight = defaultWeight;
+        }
+
+        String key() {
+            return key;
+        }
+
+        static Operation byKey(String key) {
+            for (Operation operation : values()) {
+                if (operation.key.equals(key)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Unknown operation '" + key + "', expected one of "
+                    + List.of(values()).stream().map(Operation::key).toList());
+        }
+    }
+
+    private final String baseUrl;
+    private final Duration timeout;
+    private final List<Long> productIds;
+    private final List<String> productNames;
+    private final List<Long> mealIds;
+    private final int vocabulary;
+    private final double unknownTermRate;
+    private final int maxItems;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final AtomicLong created = new AtomicLong();
+
+    Workload(String baseUrl, Duration timeout, List<Long> productIds, List<String> productNames, List<Long> mealIds,
+             Map<Operation, Integer> weights, int vocabulary, double unknownTermRate, int maxItems) {
+        this.baseUrl = baseUrl;
+        this.timeout = timeout;
+        this.productIds = productIds;
+        this.productNames = productNames;
+        this.mealIds = mealIds;
+        this.vocabulary = vocabulary;
+        this.unknownTermRate = unknownTermRate;
+        this.maxItems = maxItems;
+        this.operations = weights.entrySet().stream().filter(e -> e.getValue() > 0).map(Map.Entry::getKey)
+                .toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("Operation mix has no positive weights");
+        }
+    }
+
+    static Map<Operation, Integer> defaultWeights() {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            weights.put(operation, operation.defaultWeight);
+        }
+        return weights;
+    }
+
+    // "calories:50,product.get:50" - перечисленные операции получают заданный вес, остальные выключаются.
+    static Map<Operation, Integer> parseWeights(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            weights.put(operation, 0);
+        }
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry '" + entry + "', expected operation:weight");
+            }
+            weights.put(Operation.byKey(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    Operation nextOperation() {
+        int ticket = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < operations.length; i++) {
+            if (ticket < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    HttpRequest request(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (operation) {
+            case PRODUCT_GET -> get("/products/" + pick(productIds));
+            case PRODUCT_LIST -> get("/products/?limit=20&after=" + random.nextLong(pick(productIds)));
+            case PRODUCT_CREATE -> post("/products/create?name=" + encode("Load product " + created.incrementAndGet())
+                    + "&caloriesPer100g=" + random.nextInt(20, 700));
+            case PRODUCT_UPDATE -> {
+                int index = random.nextInt(productIds.size());
+                yield put("/products/update/" + productIds.get(index) + "?name=" + encode(productNames.get(index))
+                        + "&caloriesPer100g=" + random.nextInt(20, 700));
+            }
+            case MEAL_GET -> get("/meals/" + pick(mealIds));
+            case MEAL_CALORIES -> get("/meals/" + pick(mealIds) + "/calories");
+            case MEAL_PRODUCT_CREATE -> post("/mealProducts/create?grams=" + random.nextInt(10, 300)
+                    + "&mealId=" + pick(mealIds) + "&productId=" + pick(productIds));
+            case CALORIES -> get(caloriesQuery(random));
+        };
+    }
+
+    // Термины словаря распределены неравномерно (квадрат равномерного), поэтому часть запросов попадает в кэши,
+    // а длинный хвост доходит до внешнего API.
+    private String caloriesQuery(ThreadLocalRandom random) {
+        int items = random.nextInt(1, maxItems + 1);
+        StringBuilder query = new StringBuilder("/products/CalculateCalories?productCount=").append(items);
+        for (int i = 0; i < items; i++) {
+            String term;
+            if (random.nextDouble() < unknownTermRate) {
+                term = "unknown dish " + random.nextInt(1_000_000);
+            } else {
+                double skewed = random.nextDouble();
+                term = "food " + (int) (skewed * skewed * vocabulary);
+            }
+            query.append("&food=").append(encode(term));
+        }
+        for (int i = 0; i < items; i++) {
+            query.append("&gram=").append(random.nextInt(20, 400));
+        }
+        return query.toString();
+    }
+
+    private static <T> T pick(List<T> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(timeout).GET().build();
+    }
+
+    private HttpRequest post(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(timeout).POST(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private HttpRequest put(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(timeout).PUT(HttpRequest.BodyPublishers.noBody()).build();
+    }
+}
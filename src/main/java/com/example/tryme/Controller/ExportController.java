@@ -0,0 +1,65 @@
+package com.example.tryme.Controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.tryme.services.ExportService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+@RestController
+@RequestMapping("/export")
+@Tag(name = "Export API", description = "Потоковая выгрузка таблиц целиком в формате NDJSON")
+public class ExportController {
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @Operation(summary = "Выгрузить все продукты", description = "Одна строка JSON на продукт, по возрастанию id.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Поток продуктов")
+    })
+    @GetMapping(value = "/products", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @Parameter(description = "Выгрузить только записи с id больше указанного", example = "1000")
+            @RequestParam(required = false) Long since) {
+        return ndjson(exportService.exportProducts(since));
+    }
+
+    @Operation(summary = "Выгрузить все блюда", description = "Одна строка JSON на блюдо, по возрастанию id.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Поток блюд")
+    })
+    @GetMapping(value = "/meals", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportMeals(
+            @Parameter(description = "Выгрузить только записи с id больше указанного", example = "1000")
+            @RequestParam(required = false) Long since) {
+        return ndjson(exportService.exportMeals(since));
+    }
+
+    @Operation(summary = "Выгрузить все записи о продуктах в блюдах", description = "Одна строка JSON на запись, по возрастанию id.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Поток записей")
+    })
+    @GetMapping(value = "/mealProducts", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportMealProducts(
+            @Parameter(description = "Выгрузить только записи с id больше указанного", example = "1000")
+            @RequestParam(required = false) Long since) {
+        return ndjson(exportService.exportMealProducts(since));
+    }
+
+    private ResponseEntity<StreamingResponseBody> ndjson(StreamingResponseBody body) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+}
@@ -3,6 +3,7 @@ package com.example.tryme.Controller;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -11,13 +12,19 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.example.tryme.Model.Meal;
+import com.example.tryme.dto.CursorPage;
+import com.example.tryme.dto.MealCaloriesDto;
+import com.example.tryme.dto.MealDetailDto;
+import com.example.tryme.dto.MealDto;
 import com.example.tryme.exception.BadRequestException;
+import com.example.tryme.services.KeysetPaging;
 import com.example.tryme.services.MealService;
+import com.example.tryme.services.ResourceVersions;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -30,10 +37,12 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 @Tag(name = "Meal API", description = "API для управления блюдами")
 public class MealController {
     private final MealService mealService;
+    private final ResourceVersions resourceVersions;
 
     @Autowired
-    public MealController(MealService mealService) {
+    public MealController(MealService mealService, ResourceVersions resourceVersions) {
         this.mealService = mealService;
+        this.resourceVersions = resourceVersions;
     }
 
     @Operation(summary = "Получить блюда по названию продукта", description = "Возвращает список блюд, содержащих указанный продукт.")
@@ -42,7 +51,7 @@ public class MealController {
             @ApiResponse(responseCode = "400", description = "Некорректный запрос (например, пустое имя продукта)", ref = "#/components/responses/BadRequest")
     })
     @GetMapping("/by-product")
-    public ResponseEntity<List<Meal>> getMealsByProduct(
+    public ResponseEntity<List<MealDto>> getMealsByProduct(
             @Parameter(description = "Название продукта для поиска", required = true, example = "Chicken") @RequestParam String productName) {
         if (productName == null || productName.trim().isEmpty()) {
             throw new BadRequestException("Параметр 'productName' не может быть пустым.");
@@ -83,16 +92,45 @@ public class MealController {
         return ResponseEntity.status(HttpStatus.CREATED).body(results);
     }
 
-    @Operation(summary = "Получить блюдо по ID")
+    @Operation(summary = "Получить блюдо по ID",
+            description = "Возвращает блюдо вместе с составом: продукты, их калорийность и вес. ETag меняется вместе с версией блюда, "
+                    + "которая растет и при изменении состава или продуктов в нем.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Блюдо найдено"),
+            @ApiResponse(responseCode = "304", description = "Блюдо не изменилось с версии из If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Блюдо не найдено", ref = "#/components/responses/NotFound")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<Meal> getMeal(
+    public ResponseEntity<MealDetailDto> getMeal(
+            @Parameter(description = "ID блюда", required = true, example = "1") @PathVariable Long id,
+            @Parameter(description = "ETag ранее полученного ответа", example = "\"meals-1-v3\"")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String cachedETag = mealService.cachedDetailETag(id);
+        if (ConditionalGet.matches(ifNoneMatch, cachedETag)) {
+            return ConditionalGet.notModified(cachedETag);
+        }
+        MealDetailDto detail = mealService.getMealDetail(id);
+        return ConditionalGet.ok(ifNoneMatch, MealService.eTag(detail), detail);
+    }
+
+    @Operation(summary = "Получить калорийность блюда", description = "Итог поддерживается при каждом изменении состава, без пересчета по позициям.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Калорийность блюда"),
+            @ApiResponse(responseCode = "404", description = "Блюдо не найдено", ref = "#/components/responses/NotFound")
+    })
+    @GetMapping("/{id}/calories")
+    public ResponseEntity<MealCaloriesDto> getMealCalories(
             @Parameter(description = "ID блюда", required = true, example = "1") @PathVariable Long id) {
-    
-        return ResponseEntity.ok(mealService.getMeal(id));
+        return ResponseEntity.ok(mealService.getMealCalories(id));
+    }
+
+    @Operation(summary = "Пересчитать калорийность всех блюд", description = "Заново считает сохраненные итоги по составу блюд.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Итоги пересчитаны")
+    })
+    @PostMapping("/calories/rebuild")
+    public ResponseEntity<String> rebuildMealCalories() {
+        return ResponseEntity.ok("Калорийность пересчитана для " + mealService.rebuildCalorieTotals() + " блюд.");
     }
 
     @Operation(summary = "Обновить существующее блюдо")
@@ -122,12 +160,28 @@ public class MealController {
         return ResponseEntity.ok(mealService.deleteMeal(id));
     }
 
-    @Operation(summary = "Получить все блюда")
+    @Operation(summary = "Получить блюда постранично",
+            description = "Keyset-пагинация по id: nextCursor из ответа передается в параметр after для следующей страницы.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Список всех блюд")
+            @ApiResponse(responseCode = "200", description = "Страница блюд"),
+            @ApiResponse(responseCode = "304", description = "Блюда не менялись с версии из If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Некорректные параметры пагинации", ref = "#/components/responses/BadRequest")
     })
     @GetMapping("/")
-    public ResponseEntity<List<Meal>> getAllMeals() {
-        return ResponseEntity.ok(mealService.getAllMeals());
+    public ResponseEntity<CursorPage<MealDto>> getAllMeals(
+            @Parameter(description = "id последней записи предыдущей страницы", example = "50") @RequestParam(required = false) Long after,
+            @Parameter(description = "Размер страницы (1-" + KeysetPaging.MAX_LIMIT + ")", example = "50") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Порядок по id: asc или desc", example = "asc") @RequestParam(required = false) String sort,
+            @Parameter(description = "ETag ранее полученного ответа", example = "\"meals-m1a2b3c-42\"")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Параметры проверяются до сверки ETag: некорректный запрос получает 400, а не 304.
+        int pageLimit = KeysetPaging.checkLimit(limit);
+        boolean descending = KeysetPaging.isDescending(sort);
+        // Версия таблицы читается до выборки: изменение во время чтения даст новый ETag при следующем запросе.
+        String etag = resourceVersions.tableETag(ResourceVersions.MEALS);
+        if (ConditionalGet.matches(ifNoneMatch, etag)) {
+            return ConditionalGet.notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).body(mealService.getMealsPage(after, pageLimit, descending));
     }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package com.example.tryme.Controller;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -10,15 +11,22 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.example.tryme.Model.MealProduct;
+import com.example.tryme.dto.CursorPage;
+import com.example.tryme.dto.MealCompositionDto;
+import com.example.tryme.dto.MealCompositionItem;
+import com.example.tryme.dto.MealProductDto;
 import com.example.tryme.exception.BadRequestException;
+import com.example.tryme.services.KeysetPaging;
 import com.example.tryme.services.MealProductService;
 import com.example.tryme.services.MealService;
 import com.example.tryme.services.ProductService;
+import com.example.tryme.services.ResourceVersions;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -34,14 +42,17 @@ public class MealProductController {
     private final MealProductService mealProductService;
     private final MealService mealService;
     private final ProductService productService;
+    private final ResourceVersions resourceVersions;
 
     @Autowired
     public MealProductController(MealProductService mealProductService,
                                  MealService mealService,
-                                 ProductService productService) {
+                                 ProductService productService,
+                                 ResourceVersions resourceVersions) {
         this.mealProductService = mealProductService;
         this.mealService = mealService;
         this.productService = productService;
+        this.resourceVersions = resourceVersions;
     }
 
     @Operation(summary = "Создать новую запись о продукте в блюде")
@@ -66,12 +77,20 @@ public class MealProductController {
     @Operation(summary = "Получить запись о продукте в блюде по ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Запись найдена"),
+            @ApiResponse(responseCode = "304", description = "Запись не изменилась с версии из If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Запись не найдена", ref = "#/components/responses/NotFound")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<MealProduct> getMealProduct(
-            @Parameter(description = "ID записи о продукте в блюде", required = true, example = "1") @PathVariable Long id) {
-        return ResponseEntity.ok(mealProductService.getMealProduct(id));
+    public ResponseEntity<MealProductDto> getMealProduct(
+            @Parameter(description = "ID записи о продукте в блюде", required = true, example = "1") @PathVariable Long id,
+            @Parameter(description = "ETag ранее полученного ответа", example = "\"mealProducts-1-v0\"")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String cachedETag = mealProductService.cachedETag(id);
+        if (ConditionalGet.matches(ifNoneMatch, cachedETag)) {
+            return ConditionalGet.notModified(cachedETag);
+        }
+        MealProductDto mealProduct = mealProductService.getMealProduct(id);
+        return ConditionalGet.ok(ifNoneMatch, MealProductService.eTag(mealProduct), mealProduct);
     }
 
     @Operation(summary = "Обновить вес продукта в блюде")
@@ -90,6 +109,33 @@ public class MealProductController {
         return ResponseEntity.ok(mealProductService.updateMealProduct(id, grams));
     }
 
+    @Operation(summary = "Заменить состав блюда целиком",
+            description = "Передается полный желаемый список (productId, grams). Отличия от текущего состава применяются "
+                    + "одной транзакцией: совпавшие записи обновляются только при другом весе, лишние удаляются, недостающие добавляются.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Состав блюда заменен"),
+            @ApiResponse(responseCode = "400", description = "Некорректный состав", ref = "#/components/responses/BadRequest"),
+            @ApiResponse(responseCode = "404", description = "Блюдо или продукт не найдены", ref = "#/components/responses/NotFound")
+    })
+    @PutMapping("/meal/{mealId}")
+    public ResponseEntity<MealCompositionDto> replaceMealComposition(
+            @Parameter(description = "ID блюда", required = true, example = "1") @PathVariable Long mealId,
+            @RequestBody(required = false) List<MealCompositionItem> items) {
+        if (items == null) {
+            throw new BadRequestException("Тело запроса должно содержать список продуктов блюда.");
+        }
+        for (int i = 0; i < items.size(); i++) {
+            MealCompositionItem item = items.get(i);
+            if (item == null || item.productId() == null) {
+                throw new BadRequestException("Позиция " + i + ": параметр 'productId' должен быть указан.");
+            }
+            if (item.grams() == null || item.grams() <= 0) {
+                throw new BadRequestException("Позиция " + i + ": параметр 'grams' должен быть указан и быть положительным числом.");
+            }
+        }
+        return ResponseEntity.ok(mealProductService.replaceMealComposition(mealId, items));
+    }
+
     @Operation(summary = "Удалить запись о продукте в блюде по ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Запись успешно удалена"),
@@ -101,12 +147,26 @@ public class MealProductController {
         return ResponseEntity.ok(mealProductService.deleteMealProduct(id));
     }
 
-    @Operation(summary = "Получить все записи о продуктах в блюдах")
+    @Operation(summary = "Получить записи о продуктах в блюдах постранично",
+            description = "Keyset-пагинация по id: nextCursor из ответа передается в параметр after для следующей страницы.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Список всех записей")
+            @ApiResponse(responseCode = "200", description = "Страница записей"),
+            @ApiResponse(responseCode = "304", description = "Записи не менялись с версии из If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Некорректные параметры пагинации", ref = "#/components/responses/BadRequest")
     })
     @GetMapping("/")
-    public ResponseEntity<List<MealProduct>> getAllMealProducts() {
-        return ResponseEntity.ok(mealProductService.getAllMealProducts());
+    public ResponseEntity<CursorPage<MealProductDto>> getAllMealProducts(
+            @Parameter(description = "id последней записи предыдущей страницы", example = "50") @RequestParam(required = false) Long after,
+            @Parameter(description = "Размер страницы (1-" + KeysetPaging.MAX_LIMIT + ")", example = "50") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Порядок по id: asc или desc", example = "asc") @RequestParam(required = false) String sort,
+            @Parameter(description = "ETag ранее полученного ответа", example = "\"mealProducts-m1a2b3c-42\"")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        int pageLimit = KeysetPaging.checkLimit(limit);
+        boolean descending = KeysetPaging.isDescending(sort);
+        String etag = resourceVersions.tableETag(ResourceVersions.MEAL_PRODUCTS);
+        if (ConditionalGet.matches(ifNoneMatch, etag)) {
+            return ConditionalGet.notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).body(mealProductService.getMealProductsPage(after, pageLimit, descending));
     }
 }
\ No newline at end of file
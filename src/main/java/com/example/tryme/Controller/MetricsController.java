@@ -1,29 +1,104 @@
 package com.example.tryme.Controller;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.tryme.aspect.AsyncTraceLog;
+import com.example.tryme.aspect.MethodProfiler;
+import com.example.tryme.client.CalorieApiClient;
+import com.example.tryme.dto.MethodProfileDto;
+import com.example.tryme.exception.BadRequestException;
+import com.example.tryme.services.CacheService;
+import com.example.tryme.services.CalorieJobService;
+import com.example.tryme.services.CaloriesService;
 import com.example.tryme.services.RequestCounter;
 
 @RestController
 @RequestMapping("/stats")
 public class MetricsController {
     private final RequestCounter requestCounter;
+    private final CacheService cacheService;
+    private final CaloriesService caloriesService;
+    private final CalorieApiClient calorieApiClient;
+    private final CalorieJobService calorieJobService;
+    private final MethodProfiler methodProfiler;
+    private final AsyncTraceLog traceLog;
 
-    public MetricsController(RequestCounter requestCounter) {
+    public MetricsController(RequestCounter requestCounter, CacheService cacheService,
+                             CaloriesService caloriesService, CalorieApiClient calorieApiClient,
+                             CalorieJobService calorieJobService, MethodProfiler methodProfiler,
+                             AsyncTraceLog traceLog) {
         this.requestCounter = requestCounter;
+        this.cacheService = cacheService;
+        this.caloriesService = caloriesService;
+        this.calorieApiClient = calorieApiClient;
+        this.calorieJobService = calorieJobService;
+        this.methodProfiler = methodProfiler;
+        this.traceLog = traceLog;
     }
 
     @GetMapping("/requests")
-    public Map<String, Integer> getMetrics() {
-        Map<String, Integer> metrics = new HashMap<>();
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
         metrics.put("totalRequests", requestCounter.getTotalRequests());
         metrics.put("successfulRequests", requestCounter.getSuccessfulRequests());
         metrics.put("failedRequests", requestCounter.getFailedRequests());
+        metrics.put("clientErrors", requestCounter.getClientErrors());
+        metrics.put("serverErrors", requestCounter.getServerErrors());
+        metrics.put("endpoints", requestCounter.getEndpointStatistics());
         return metrics;
     }
+
+    @GetMapping(value = "/prometheus", produces = "text/plain;version=0.0.4;charset=utf-8")
+    public String getPrometheusMetrics() {
+        return requestCounter.toPrometheus();
+    }
+
+    @GetMapping("/cache")
+    public Map<String, Map<String, Object>> getCacheMetrics() {
+        return cacheService.getStatistics();
+    }
+
+    @GetMapping("/external-api")
+    public Map<String, Object> getExternalApiMetrics() {
+        return caloriesService.getExternalApiStatistics();
+    }
+
+    @GetMapping("/http-client")
+    public Map<String, Object> getHttpClientMetrics() {
+        return calorieApiClient.getStatistics();
+    }
+
+    @GetMapping("/jobs")
+    public Map<String, Object> getJobMetrics() {
+        return calorieJobService.getStatistics();
+    }
+
+    @GetMapping("/logging")
+    public Map<String, Object> getLoggingMetrics() {
+        return traceLog.getStatistics();
+    }
+
+    // sort: total, self, calls, mean, p99 или max.
+    @GetMapping("/profile")
+    public List<MethodProfileDto> getProfile(@RequestParam(defaultValue = "20") int top,
+                                             @RequestParam(defaultValue = "total") String sort) {
+        if (top <= 0) {
+            throw new BadRequestException("Параметр 'top' должен быть положительным числом.");
+        }
+        return methodProfiler.top(top, sort);
+    }
+
+    @PostMapping("/profile/reset")
+    public String resetProfile() {
+        methodProfiler.reset();
+        return "Профиль методов сброшен.";
+    }
 }
\ No newline at end of file
@@ -1,23 +1,36 @@
 package com.example.tryme.Controller;
 
+import java.net.URI;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import com.example.tryme.Model.Product;
+import com.example.tryme.dto.BatchMealRequest;
+import com.example.tryme.dto.BatchMealResultDto;
+import com.example.tryme.dto.CalorieJobDto;
+import com.example.tryme.dto.CursorPage;
+import com.example.tryme.dto.ProductDto;
 import com.example.tryme.exception.BadRequestException;
+import com.example.tryme.services.CalorieJobService;
 import com.example.tryme.services.CaloriesService;
+import com.example.tryme.services.KeysetPaging;
 import com.example.tryme.services.ProductService;
+import com.example.tryme.services.ResourceVersions;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -32,12 +45,18 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class ProductController {
     private final ProductService productService;
     private final CaloriesService caloriesService;
+    private final CalorieJobService calorieJobService;
+    private final ResourceVersions resourceVersions;
 
     @Autowired
     public ProductController(ProductService productService,
-                             CaloriesService caloriesService) {
+                             CaloriesService caloriesService,
+                             CalorieJobService calorieJobService,
+                             ResourceVersions resourceVersions) {
         this.productService = productService;
         this.caloriesService = caloriesService;
+        this.calorieJobService = calorieJobService;
+        this.resourceVersions = resourceVersions;
     }
 
     @Operation(summary = "Рассчитать калории для набора продуктов",
@@ -56,7 +75,77 @@ public class ProductController {
             
             @Parameter(description = "Массив веса продуктов в граммах.", example = "[150, 100]")
             @RequestParam(required = false) Integer[] gram) {
+        validateCalculation(productCount, food, gram);
+        return ResponseEntity.ok(caloriesService.calculateCalories(productCount, food, gram));
+    }
+
+    @Operation(summary = "Рассчитать калории для пакета блюд",
+            description = "Принимает JSON-массив блюд с позициями {food, gram}. Одинаковые продукты всего пакета разрешаются один раз, "
+                    + "блюда сохраняются одной транзакцией. Результаты возвращаются в порядке запроса: блюдо с ошибкой "
+                    + "хотя бы в одной позиции не сохраняется, ошибки указываются у позиций.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Пакет обработан, результат по каждому блюду"),
+            @ApiResponse(responseCode = "400", description = "Пустой пакет или превышены пределы размера", ref = "#/components/responses/BadRequest")
+    })
+    @PostMapping(value = "/CalculateCalories/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<BatchMealResultDto>> calculateBatch(
+            @Parameter(description = "Блюда для расчета", required = true) @RequestBody List<BatchMealRequest> meals) {
+        if (meals == null || meals.isEmpty()) {
+            throw new BadRequestException("Список блюд не может быть пустым.");
+        }
+        return ResponseEntity.ok(caloriesService.calculateBatch(meals));
+    }
+
+    @Operation(summary = "Запустить расчет калорий в фоне",
+            description = "Принимает те же параметры, что и CalculateCalories, и сразу возвращает id задачи. "
+                    + "Результат доступен по GET /products/CalculateCalories/jobs/{id}, прогресс - через SSE по .../events.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Задача принята"),
+            @ApiResponse(responseCode = "400", description = "Некорректные входные данные", ref = "#/components/responses/BadRequest"),
+            @ApiResponse(responseCode = "429", description = "Очередь расчетов заполнена")
+    })
+    @PostMapping("/CalculateCalories/jobs")
+    public ResponseEntity<CalorieJobDto> submitCalculation(
+            @Parameter(description = "Количество продуктов для расчета.", example = "2")
+            @RequestParam(required = false) Integer productCount,
 
+            @Parameter(description = "Массив названий продуктов.", example = "[\"Chicken Breast\", \"Broccoli\"]")
+            @RequestParam(required = false) String[] food,
+
+            @Parameter(description = "Массив веса продуктов в граммах.", example = "[150, 100]")
+            @RequestParam(required = false) Integer[] gram) {
+        validateCalculation(productCount, food, gram);
+        CalorieJobDto job = calorieJobService.submit(productCount, food, gram);
+        return ResponseEntity.accepted()
+                .location(URI.create("/products/CalculateCalories/jobs/" + job.id()))
+                .body(job);
+    }
+
+    @Operation(summary = "Получить состояние фонового расчета калорий",
+            description = "Статус QUEUED, RUNNING, DONE или FAILED; при DONE в поле result - тот же ответ, что и у CalculateCalories.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Состояние задачи"),
+            @ApiResponse(responseCode = "404", description = "Задача не найдена или срок хранения результата истек", ref = "#/components/responses/NotFound")
+    })
+    @GetMapping("/CalculateCalories/jobs/{id}")
+    public ResponseEntity<CalorieJobDto> getCalculation(
+            @Parameter(description = "ID задачи", required = true) @PathVariable String id) {
+        return ResponseEntity.ok(calorieJobService.getJob(id));
+    }
+
+    @Operation(summary = "Подписаться на прогресс фонового расчета калорий",
+            description = "Server-Sent Events: событие item на каждую разрешенную позицию, затем done или failed с итоговым состоянием задачи.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Поток событий"),
+            @ApiResponse(responseCode = "404", description = "Задача не найдена или срок хранения результата истек", ref = "#/components/responses/NotFound")
+    })
+    @GetMapping(value = "/CalculateCalories/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamCalculation(
+            @Parameter(description = "ID задачи", required = true) @PathVariable String id) {
+        return calorieJobService.subscribe(id);
+    }
+
+    private void validateCalculation(Integer productCount, String[] food, Integer[] gram) {
         if (productCount == null || food == null || gram == null) {
             StringBuilder missingParams = new StringBuilder("Не указаны обязательные параметры: ");
             if (productCount == null) missingParams.append("productCount; ");
@@ -64,7 +153,6 @@ public class ProductController {
             if (gram == null) missingParams.append("gram; ");
             throw new BadRequestException(missingParams.toString().trim());
         }
-
         if (productCount <= 0) {
             throw new BadRequestException("Параметр 'productCount' должен быть положительным числом.");
         }
@@ -82,7 +170,6 @@ public class ProductController {
                 throw new BadRequestException("Вес продукта (gram) для '" + food[i] + "' должен быть указан и быть положительным числом.");
             }
         }
-        return ResponseEntity.ok(caloriesService.calculateCalories(productCount, food, gram));
     }
 
     @Operation(summary = "Создать новый продукт")
@@ -107,12 +194,20 @@ public class ProductController {
     @Operation(summary = "Получить продукт по ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Продукт найден"),
+            @ApiResponse(responseCode = "304", description = "Продукт не изменился с версии из If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Продукт не найден", ref = "#/components/responses/NotFound")
     })
     @GetMapping("/{id}")
-    public ResponseEntity<Product> getProduct(
-            @Parameter(description = "ID продукта", required = true, example = "1") @PathVariable Long id) {
-        return ResponseEntity.ok(productService.getProduct(id));
+    public ResponseEntity<ProductDto> getProduct(
+            @Parameter(description = "ID продукта", required = true, example = "1") @PathVariable Long id,
+            @Parameter(description = "ETag ранее полученного ответа", example = "\"products-1-v0\"")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String cachedETag = productService.cachedETag(id);
+        if (ConditionalGet.matches(ifNoneMatch, cachedETag)) {
+            return ConditionalGet.notModified(cachedETag);
+        }
+        ProductDto product = productService.getProductDto(id);
+        return ConditionalGet.ok(ifNoneMatch, ProductService.eTag(product), product);
     }
 
     @Operation(summary = "Обновить существующий продукт")
@@ -146,12 +241,26 @@ public class ProductController {
         return ResponseEntity.ok(productService.deleteProduct(id));
     }
 
-    @Operation(summary = "Получить все продукты")
+    @Operation(summary = "Получить продукты постранично",
+            description = "Keyset-пагинация по id: nextCursor из ответа передается в параметр after для следующей страницы.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Список всех продуктов")
+            @ApiResponse(responseCode = "200", description = "Страница продуктов"),
+            @ApiResponse(responseCode = "304", description = "Продукты не менялись с версии из If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Некорректные параметры пагинации", ref = "#/components/responses/BadRequest")
     })
     @GetMapping("/")
-    public ResponseEntity<List<Product>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<CursorPage<ProductDto>> getAllProducts(
+            @Parameter(description = "id последней записи предыдущей страницы", example = "50") @RequestParam(required = false) Long after,
+            @Parameter(description = "Размер страницы (1-" + KeysetPaging.MAX_LIMIT + ")", example = "50") @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Порядок по id: asc или desc", example = "asc") @RequestParam(required = false) String sort,
+            @Parameter(description = "ETag ранее полученного ответа", example = "\"products-m1a2b3c-42\"")
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        int pageLimit = KeysetPaging.checkLimit(limit);
+        boolean descending = KeysetPaging.isDescending(sort);
+        String etag = resourceVersions.tableETag(ResourceVersions.PRODUCTS);
+        if (ConditionalGet.matches(ifNoneMatch, etag)) {
+            return ConditionalGet.notModified(etag);
+        }
+        return ResponseEntity.ok().eTag(etag).body(productService.getProductsPage(after, pageLimit, descending));
     }
 }
\ No newline at end of file
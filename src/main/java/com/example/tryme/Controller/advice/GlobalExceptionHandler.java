@@ -8,6 +8,8 @@ import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -19,6 +21,8 @@ import org.springframework.web.method.annotation.MethodArgumentTypeMismatchExcep
 
 import com.example.tryme.exception.BadRequestException;
 import com.example.tryme.exception.ResourceNotFoundException;
+import com.example.tryme.exception.ServiceUnavailableException;
+import com.example.tryme.exception.TooManyRequestsException;
 
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -26,6 +30,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 
 @ApiResponse(responseCode = "400", description = "Bad Request", content = @Content(schema = @Schema(implementation = Map.class)))
 @ApiResponse(responseCode = "404", description = "Not Found", content = @Content(schema = @Schema(implementation = Map.class)))
+@ApiResponse(responseCode = "409", description = "Conflict", content = @Content(schema = @Schema(implementation = Map.class)))
+@ApiResponse(responseCode = "429", description = "Too Many Requests", content = @Content(schema = @Schema(implementation = Map.class)))
+@ApiResponse(responseCode = "503", description = "Service Unavailable", content = @Content(schema = @Schema(implementation = Map.class)))
 @ApiResponse(responseCode = "500", description = "Internal Server Error", content = @Content(schema = @Schema(implementation = Map.class)))
 @ControllerAdvice
 public class GlobalExceptionHandler {
@@ -58,6 +65,32 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(body, HttpStatus.BAD_REQUEST);
     }
 
+    // Запись изменилась параллельно между чтением и сохранением (@Version): клиенту достаточно повторить запрос.
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Object> handleOptimisticLockingFailure(
+            OptimisticLockingFailureException ex, WebRequest request) {
+        logger.warn("Concurrent modification: {} at path {}", ex.getMessage(), request.getDescription(false));
+        Map<String, Object> body = createErrorBody(HttpStatus.CONFLICT, "Conflict",
+                "Запись была изменена параллельным запросом, повторите запрос.", request);
+        return new ResponseEntity<>(body, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<Object> handleServiceUnavailableException(
+            ServiceUnavailableException ex, WebRequest request) {
+        logger.warn("Service unavailable: {} at path {}", ex.getMessage(), request.getDescription(false));
+        Map<String, Object> body = createErrorBody(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", ex.getMessage(), request);
+        return new ResponseEntity<>(body, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<Object> handleTooManyRequestsException(
+            TooManyRequestsException ex, WebRequest request) {
+        logger.warn("Too many requests: {} at path {}", ex.getMessage(), request.getDescription(false));
+        Map<String, Object> body = createErrorBody(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", ex.getMessage(), request);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "5").body(body);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Object> handleIllegalArgumentException(
             IllegalArgumentException ex, WebRequest request) {
@@ -2,23 +2,41 @@ package com.example.tryme.Model;
 
 import java.util.List;
 
+import com.example.tryme.services.ResourceVersionListener;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
 import jakarta.persistence.CascadeType;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Version;
 
 @Entity
+@EntityListeners(ResourceVersionListener.class)
 public class Meal {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "meal_seq")
+    @SequenceGenerator(name = "meal_seq", sequenceName = "meal_seq", allocationSize = 50)
     private Long id;
 
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private Long version;
+
     private String name;
 
+    // Меняются только атомарными UPDATE в MealRepository, поэтому merge сущности их не перезаписывает.
+    // null - итог еще не посчитан (строки, созданные до появления колонок).
+    @Column(updatable = false)
+    private Long totalCalories = 0L;
+    @Column(updatable = false)
+    private Integer itemCount = 0;
+
     @OneToMany(mappedBy = "meal", cascade = CascadeType.ALL)
     @JsonManagedReference
     private List<MealProduct> products;
@@ -34,8 +52,14 @@ public class Meal {
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
+    public Long getTotalCalories() { return totalCalories; }
+    public void setTotalCalories(Long totalCalories) { this.totalCalories = totalCalories; }
+    public Integer getItemCount() { return itemCount; }
+    public void setItemCount(Integer itemCount) { this.itemCount = itemCount; }
     public List<MealProduct> getProducts() { return products; }
     public void setProducts(List<MealProduct> products) { this.products = products; }
 }
\ No newline at end of file
@@ -1,20 +1,31 @@
 package com.example.tryme.Model;
 
+import com.example.tryme.services.ResourceVersionListener;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Version;
 
 @Entity
+@EntityListeners(ResourceVersionListener.class)
 public class MealProduct {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "meal_product_seq")
+    @SequenceGenerator(name = "meal_product_seq", sequenceName = "meal_product_seq", allocationSize = 50)
     private Long id;
 
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private Long version;
+
     private Integer grams;
 
     @ManyToOne
@@ -40,6 +51,8 @@ public class MealProduct {
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
     public Integer getGrams() { return grams; }
     public void setGrams(Integer grams) { this.grams = grams; }
     public Meal getMeal() { return meal; }
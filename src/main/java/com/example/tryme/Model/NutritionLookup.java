@@ -0,0 +1,39 @@
+package com.example.tryme.Model;
+
+import java.time.Instant;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+
+@Entity
+public class NutritionLookup {
+    // Нормализованный поисковый запрос к внешнему API.
+    @Id
+    private String term;
+
+    private String productName;
+    private Integer caloriesPer100g;
+    private boolean found;
+    private Instant fetchedAt;
+
+    public NutritionLookup() {}
+
+    public NutritionLookup(String term, String productName, Integer caloriesPer100g, boolean found, Instant fetchedAt) {
+        this.term = term;
+        this.productName = productName;
+        this.caloriesPer100g = caloriesPer100g;
+        this.found = found;
+        this.fetchedAt = fetchedAt;
+    }
+
+    public String getTerm() { return term; }
+    public void setTerm(String term) { this.term = term; }
+    public String getProductName() { return productName; }
+    public void setProductName(String productName) { this.productName = productName; }
+    public Integer getCaloriesPer100g() { return caloriesPer100g; }
+    public void setCaloriesPer100g(Integer caloriesPer100g) { this.caloriesPer100g = caloriesPer100g; }
+    public boolean isFound() { return found; }
+    public void setFound(boolean found) { this.found = found; }
+    public Instant getFetchedAt() { return fetchedAt; }
+    public void setFetchedAt(Instant fetchedAt) { this.fetchedAt = fetchedAt; }
+}
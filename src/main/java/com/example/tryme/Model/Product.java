@@ -2,20 +2,32 @@ package com.example.tryme.Model;
 
 import java.util.List;
 
+import com.example.tryme.services.ResourceVersionListener;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Version;
 
 @Entity
+@EntityListeners(ResourceVersionListener.class)
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_seq")
+    @SequenceGenerator(name = "product_seq", sequenceName = "product_seq", allocationSize = 50)
     private Long id;
 
+    // default 0 - чтобы ddl-auto=update смог добавить колонку в таблицу с уже существующими строками.
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private Long version;
+
     private String name;
     private Integer caloriesPer100g;
 
@@ -32,6 +44,8 @@ public class Product {
 
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
     public Integer getCaloriesPer100g() { return caloriesPer100g; }
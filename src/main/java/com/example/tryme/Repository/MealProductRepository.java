@@ -1,14 +1,32 @@
 package com.example.tryme.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import com.example.tryme.Model.MealProduct;
+import com.example.tryme.dto.MealProductDto;
 
 public interface MealProductRepository extends JpaRepository<MealProduct, Long> {
     @Query("SELECT mp FROM MealProduct mp WHERE mp.meal.id = :mealId")
     List<MealProduct> findByMealId(@Param("mealId") Long mealId);
-}
\ No newline at end of file
+
+    @Query("SELECT mp FROM MealProduct mp JOIN FETCH mp.product WHERE mp.meal.id = :mealId ORDER BY mp.id")
+    List<MealProduct> findByMealIdWithProduct(@Param("mealId") Long mealId);
+
+    @Query("SELECT new com.example.tryme.dto.MealProductDto(mp.id, mp.grams, mp.meal.id, mp.product.id, mp.version) "
+            + "FROM MealProduct mp WHERE mp.id = :id")
+    Optional<MealProductDto> findDtoById(@Param("id") Long id);
+
+    @Query("SELECT new com.example.tryme.dto.MealProductDto(mp.id, mp.grams, mp.meal.id, mp.product.id, mp.version) "
+            + "FROM MealProduct mp WHERE mp.id > :after ORDER BY mp.id ASC")
+    List<MealProductDto> findPageAfter(@Param("after") Long after, Limit limit);
+
+    @Query("SELECT new com.example.tryme.dto.MealProductDto(mp.id, mp.grams, mp.meal.id, mp.product.id, mp.version) "
+            + "FROM MealProduct mp WHERE mp.id < :before ORDER BY mp.id DESC")
+    List<MealProductDto> findPageBefore(@Param("before") Long before, Limit limit);
+}
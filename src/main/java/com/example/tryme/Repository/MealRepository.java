@@ -1,14 +1,82 @@
 package com.example.tryme.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.tryme.Model.Meal;
+import com.example.tryme.dto.MealCaloriesDto;
+import com.example.tryme.dto.MealDto;
+
+import jakarta.persistence.LockModeType;
 
 public interface MealRepository extends JpaRepository<Meal, Long> {
-    @Query("SELECT m FROM Meal m JOIN m.products mp WHERE mp.product.name LIKE %:productName%")
-    List<Meal> findMealsByProductName(@Param("productName") String productName);
-}
\ No newline at end of file
+    // Итоги и версия блюда меняются вместе: смена состава должна менять и ETag карточки блюда.
+    String RECOMPUTE_TOTALS = "UPDATE Meal m SET m.version = m.version + 1, "
+            + "m.totalCalories = (SELECT COALESCE(SUM(p.caloriesPer100g * mp.grams / 100), 0) "
+            + "FROM MealProduct mp JOIN mp.product p WHERE mp.meal.id = m.id), "
+            + "m.itemCount = (SELECT COUNT(mp) FROM MealProduct mp WHERE mp.meal.id = m.id)";
+
+    @Query("SELECT DISTINCT new com.example.tryme.dto.MealDto(m.id, m.name) FROM Meal m JOIN m.products mp "
+            + "WHERE mp.product.name LIKE %:productName%")
+    List<MealDto> findMealsByProductName(@Param("productName") String productName);
+
+    // Блюдо и весь его состав одной выборкой: m.id, m.name, mp.id, p.id, p.name, p.caloriesPer100g, mp.grams, m.version.
+    @Query("SELECT m.id, m.name, mp.id, p.id, p.name, p.caloriesPer100g, mp.grams, m.version FROM Meal m "
+            + "LEFT JOIN m.products mp LEFT JOIN mp.product p WHERE m.id = :id ORDER BY mp.id")
+    List<Object[]> findDetailRows(@Param("id") Long id);
+
+    @Query("SELECT new com.example.tryme.dto.MealDto(m.id, m.name) FROM Meal m WHERE m.id > :after ORDER BY m.id ASC")
+    List<MealDto> findPageAfter(@Param("after") Long after, Limit limit);
+
+    @Query("SELECT new com.example.tryme.dto.MealDto(m.id, m.name) FROM Meal m WHERE m.id < :before ORDER BY m.id DESC")
+    List<MealDto> findPageBefore(@Param("before") Long before, Limit limit);
+
+    // Строка блюда блокируется до конца транзакции: замены состава одного блюда идут по очереди.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM Meal m WHERE m.id = :id")
+    Optional<Meal> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("SELECT DISTINCT mp.meal.id FROM MealProduct mp WHERE mp.product.id = :productId")
+    List<Long> findMealIdsByProduct(@Param("productId") Long productId);
+
+    @Query("SELECT new com.example.tryme.dto.MealCaloriesDto(m.id, m.totalCalories, m.itemCount) FROM Meal m WHERE m.id = :id")
+    Optional<MealCaloriesDto> findCaloriesById(@Param("id") Long id);
+
+    // Атомарное приращение в БД: параллельные изменения состава не теряют друг друга.
+    @Transactional
+    @Modifying
+    @Query("UPDATE Meal m SET m.totalCalories = m.totalCalories + :calories, m.itemCount = m.itemCount + :items, "
+            + "m.version = m.version + 1 "
+            + "WHERE m.id = :id")
+    int addToTotals(@Param("id") Long id, @Param("calories") long calories, @Param("items") int items);
+
+    @Transactional
+    @Modifying
+    @Query(RECOMPUTE_TOTALS + " WHERE m.id = :id")
+    int recomputeTotals(@Param("id") Long id);
+
+    @Transactional
+    @Modifying
+    @Query(RECOMPUTE_TOTALS + " WHERE m.id IN :ids")
+    int recomputeTotalsForMeals(@Param("ids") Collection<Long> ids);
+
+    @Transactional
+    @Modifying
+    @Query(RECOMPUTE_TOTALS)
+    int recomputeAllTotals();
+
+    // Название продукта показывается в карточках блюд: его переименование - новая версия этих блюд.
+    @Transactional
+    @Modifying
+    @Query("UPDATE Meal m SET m.version = m.version + 1 WHERE m.id IN :ids")
+    int incrementVersionForMeals(@Param("ids") Collection<Long> ids);
+}
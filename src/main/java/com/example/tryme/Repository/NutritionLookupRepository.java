@@ -0,0 +1,8 @@
+package com.example.tryme.Repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.example.tryme.Model.NutritionLookup;
+
+public interface NutritionLookupRepository extends JpaRepository<NutritionLookup, String> {
+}
@@ -1,11 +1,30 @@
 package com.example.tryme.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.example.tryme.Model.Product;
+import com.example.tryme.dto.ProductDto;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByNameContainingIgnoreCase(String name);
-}
\ No newline at end of file
+
+    @Query("select p.id, p.name from Product p")
+    List<Object[]> findAllIdsAndNames();
+
+    @Query("SELECT new com.example.tryme.dto.ProductDto(p.id, p.name, p.caloriesPer100g, p.version) FROM Product p WHERE p.id = :id")
+    Optional<ProductDto> findDtoById(@Param("id") Long id);
+
+    @Query("SELECT new com.example.tryme.dto.ProductDto(p.id, p.name, p.caloriesPer100g, p.version) FROM Product p "
+            + "WHERE p.id > :after ORDER BY p.id ASC")
+    List<ProductDto> findPageAfter(@Param("after") Long after, Limit limit);
+
+    @Query("SELECT new com.example.tryme.dto.ProductDto(p.id, p.name, p.caloriesPer100g, p.version) FROM Product p "
+            + "WHERE p.id < :before ORDER BY p.id DESC")
+    List<ProductDto> findPageBefore(@Param("before") Long before, Limit limit);
+}
@@ -2,8 +2,10 @@ package com.example.tryme;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class TrymeApplication {
     public static void main(String[] args) {
         SpringApplication.run(TrymeApplication.class, args);
@@ -0,0 +1,110 @@
+package com.example.tryme.aspect;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.springframework.stereotype.Component;
+
+import com.example.tryme.config.LoggingAspectProperties;
+
+import jakarta.annotation.PreDestroy;
+
+// Передача записей трассировки фоновому потоку без блокировок: вызывающий поток только кладет
+// готовое сообщение в очередь, форматирование и запись в appender идут в потоке trace-log.
+// При переполнении запись отбрасывается - трассировка не должна тормозить запросы.
+// При app.logging.aspect.async=false поток не запускается, а записи идут в appender напрямую.
+@Component
+public class AsyncTraceLog {
+    // Поток записи просыпается сам раз в PARK_NANOS; производитель будит его только при накоплении пачки,
+    // иначе каждая запись стоила бы системного вызова unpark.
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int WAKE_BATCH = 256;
+
+    private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private final int capacity;
+    private final boolean async;
+    private final Thread writer;
+    private volatile boolean running = true;
+    private volatile boolean parked;
+
+    public AsyncTraceLog(LoggingAspectProperties properties) {
+        this.capacity = properties.getQueueCapacity();
+        this.async = properties.isAsync();
+        if (!async) {
+            this.writer = null;
+            return;
+        }
+        this.writer = new Thread(this::drain, "trace-log");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public boolean info(Logger logger, String format, Object... args) {
+        if (!async) {
+            logger.info(format, args);
+            return true;
+        }
+        int queued = size.incrementAndGet();
+        if (queued > capacity) {
+            size.decrementAndGet();
+            dropped.increment();
+            return false;
+        }
+        queue.add(new Entry(logger, format, args));
+        if (queued == WAKE_BATCH && parked) {
+            LockSupport.unpark(writer);
+        }
+        return true;
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("async", async);
+        statistics.put("queueCapacity", capacity);
+        statistics.put("queued", size.get());
+        statistics.put("dropped", getDropped());
+        return statistics;
+    }
+
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (!async) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(1));
+    }
+
+    private void drain() {
+        while (running || !queue.isEmpty()) {
+            Entry entry = queue.poll();
+            if (entry == null) {
+                parked = true;
+                if (running && queue.isEmpty()) {
+                    LockSupport.parkNanos(this, PARK_NANOS);
+                }
+                parked = false;
+                continue;
+            }
+            size.decrementAndGet();
+            entry.logger().info(entry.format(), entry.args());
+        }
+    }
+
+    private record Entry(Logger logger, String format, Object[] args) {
+    }
+}
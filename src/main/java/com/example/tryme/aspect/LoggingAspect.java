@@ -1,79 +1,171 @@
-package com.example.tryme.aspect; 
+package com.example.tryme.aspect;
 
-import java.util.Arrays;
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
-import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.annotation.AfterReturning;
-import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.annotation.Pointcut;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
+import com.example.tryme.config.LoggingAspectProperties;
+
 @Aspect
 @Component
+@Order(1)
 public class LoggingAspect {
 
     private static final Logger logger = LoggerFactory.getLogger(LoggingAspect.class);
+    // Последнее записанное в этом потоке исключение: внешние слои, через которые оно пролетает, его не пишут.
+    // Сбрасывается при выходе из самого внешнего совета, чтобы не держать исключение в пуле потоков
+    // и записать его снова, если тот же экземпляр будет брошен в следующем вызове.
+    private static final ThreadLocal<Throwable> lastLogged = new ThreadLocal<>();
+    private static final ThreadLocal<int[]> depth = new ThreadLocal<>();
+
+    private final AsyncTraceLog traceLog;
+    private final boolean async;
+    private final int maxArgLength;
+    private final double controllerSampleRate;
+    private final double serviceSampleRate;
+    private final double repositorySampleRate;
+
+    public LoggingAspect(LoggingAspectProperties properties, AsyncTraceLog traceLog) {
+        this.traceLog = traceLog;
+        this.async = properties.isAsync();
+        this.maxArgLength = properties.getMaxArgLength();
+        this.controllerSampleRate = sampleRate(properties, properties.getControllerSampleRate());
+        this.serviceSampleRate = sampleRate(properties, properties.getServiceSampleRate());
+        this.repositorySampleRate = sampleRate(properties, properties.getRepositorySampleRate());
+    }
 
     @Pointcut("within(com.example.tryme.services..*)")
     public void serviceMethods() {
     }
 
-    @Pointcut("within(com.example.tryme.Controller..*)") 
+    @Pointcut("within(com.example.tryme.Controller..*)")
     public void controllerMethods() {
     }
 
-    @Pointcut("within(com.example.tryme.Repository..*)") 
+    @Pointcut("within(com.example.tryme.Repository..*)")
     public void repositoryMethods() {
     }
 
-    @Before("controllerMethods() || serviceMethods() || repositoryMethods()")
-    public void logMethodCall(JoinPoint joinPoint) {
-        String className = joinPoint.getSignature().getDeclaringTypeName();
-        String methodName = joinPoint.getSignature().getName();
-        Object[] args = joinPoint.getArgs();
-        logger.info("Вызов метода: {}.{}() с аргументами: {}", className, methodName, Arrays.toString(args));
+    @Around("controllerMethods()")
+    public Object traceController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, controllerSampleRate);
     }
 
-    @AfterReturning(pointcut = "controllerMethods() || serviceMethods() || repositoryMethods()", returning = "result")
-    public void logMethodReturn(JoinPoint joinPoint, Object result) {
-        String className = joinPoint.getSignature().getDeclaringTypeName();
-        String methodName = joinPoint.getSignature().getName();
-        
-        String resultString = "null";
-        if (result != null) {
-            resultString = result.toString();
-            if (resultString.length() > 200) { 
-                resultString = resultString.substring(0, 197) + "... (trimmed)";
-            }
-        }
-        logger.info("Метод {}.{}() успешно выполнен с результатом: {}", className, methodName, resultString);
+    @Around("serviceMethods()")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, serviceSampleRate);
     }
 
-    @AfterThrowing(pointcut = "controllerMethods() || serviceMethods() || repositoryMethods()", throwing = "exception")
-    public void logMethodException(JoinPoint joinPoint, Throwable exception) {
-        String className = joinPoint.getSignature().getDeclaringTypeName();
-        String methodName = joinPoint.getSignature().getName();
-        logger.error("Ошибка в методе {}.{}(): {}", className, methodName, exception.getMessage(), exception);
+    @Around("repositoryMethods()")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, repositorySampleRate);
     }
 
-    @Around("serviceMethods()")
-    public Object logServiceExecutionTime(ProceedingJoinPoint joinPoint) throws Throwable {
-        long start = System.currentTimeMillis();
-        Object result; 
+    // Решение о записи принимается до любого рендеринга: не попавший в выборку вызов стоит одного random().
+    private Object trace(ProceedingJoinPoint joinPoint, double sampleRate) throws Throwable {
+        int[] calls = depth.get();
+        if (calls == null) {
+            calls = new int[1];
+            depth.set(calls);
+        }
+        calls[0]++;
         try {
-            result = joinPoint.proceed(); 
-            return result; 
+            return traceCall(joinPoint, sampleRate);
         } finally {
-            long executionTime = System.currentTimeMillis() - start;
-            String className = joinPoint.getSignature().getDeclaringTypeName();
-            String methodName = joinPoint.getSignature().getName();
-            logger.debug("Метод сервиса {}.{}() выполнен за {} мс", className, methodName, executionTime);
+            if (--calls[0] == 0) {
+                depth.remove();
+                lastLogged.remove();
+            }
+        }
+    }
+
+    private Object traceCall(ProceedingJoinPoint joinPoint, double sampleRate) throws Throwable {
+        boolean sampled = isSampled(sampleRate) && logger.isInfoEnabled();
+        if (sampled) {
+            info("Вызов метода: {}.{}() с аргументами: {}", joinPoint.getSignature().getDeclaringTypeName(),
+                    joinPoint.getSignature().getName(), renderArgs(joinPoint.getArgs(), maxArgLength));
+        }
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable exception) {
+            logOnce(joinPoint, exception);
+            throw exception;
+        }
+        if (sampled) {
+            info("Метод {}.{}() успешно выполнен с результатом: {}", joinPoint.getSignature().getDeclaringTypeName(),
+                    joinPoint.getSignature().getName(), render(result, maxArgLength));
+        }
+        return result;
+    }
+
+    private void logOnce(ProceedingJoinPoint joinPoint, Throwable exception) {
+        if (lastLogged.get() == exception) {
+            return;
+        }
+        lastLogged.set(exception);
+        logger.error("Ошибка в методе {}.{}(): {}", joinPoint.getSignature().getDeclaringTypeName(),
+                joinPoint.getSignature().getName(), exception.getMessage(), exception);
+    }
+
+    private void info(String format, Object... args) {
+        if (async) {
+            traceLog.info(logger, format, args);
+        } else {
+            logger.info(format, args);
+        }
+    }
+
+    private static boolean isSampled(double sampleRate) {
+        return sampleRate >= 1.0 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    private static double sampleRate(LoggingAspectProperties properties, double configured) {
+        return switch (properties.getMode()) {
+            case FULL -> 1.0;
+            case OFF -> 0.0;
+            case SAMPLED -> configured;
+        };
+    }
+
+    static String renderArgs(Object[] args, int maxLength) {
+        StringBuilder out = new StringBuilder("[");
+        for (int i = 0; i < args.length; i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            out.append(render(args[i], maxLength));
+        }
+        return out.append(']').toString();
+    }
+
+    // Коллекции и массивы не обходятся - пишется только размер; строка любого объекта обрезается.
+    static String render(Object value, int maxLength) {
+        String text;
+        if (value == null) {
+            text = "null";
+        } else if (value instanceof Collection<?> collection) {
+            text = value.getClass().getSimpleName() + "(size=" + collection.size() + ")";
+        } else if (value instanceof Map<?, ?> map) {
+            text = value.getClass().getSimpleName() + "(size=" + map.size() + ")";
+        } else if (value.getClass().isArray()) {
+            text = value.getClass().getComponentType().getSimpleName() + "[" + Array.getLength(value) + "]";
+        } else {
+            text = value.toString();
+        }
+        if (text.length() > maxLength) {
+            return text.substring(0, Math.max(0, maxLength - 3)) + "... (trimmed)";
         }
+        return text;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,175 @@
+package com.example.tryme.aspect;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import com.example.tryme.config.ProfilerProperties;
+import com.example.tryme.dto.MethodProfileDto;
+import com.example.tryme.services.LatencyHistogram;
+
+// Профиль методов сервисов и репозиториев в памяти: число вызовов, общее и собственное время, гистограмма
+// и последние медленные вызовы с аргументами. Лежит рядом с аспектом, а не в services, чтобы не профилировать себя.
+@Component
+public class MethodProfiler {
+    private static final String APP_PACKAGE = "com.example.tryme.";
+
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Method, MethodStats>> stats = new ConcurrentHashMap<>();
+    private final ThreadLocal<CallStack> callStack = ThreadLocal.withInitial(CallStack::new);
+    private final long slowCallNanos;
+    private final int slowCallsKept;
+    private final int maxArgLength;
+
+    // Для Spring Data бин - JDK-прокси: в отчет идет имя нашего интерфейса репозитория.
+    private static final ClassValue<String> TYPE_NAMES = new ClassValue<>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            if (Proxy.isProxyClass(type)) {
+                return Arrays.stream(type.getInterfaces())
+                        .filter(candidate -> candidate.getName().startsWith(APP_PACKAGE))
+                        .map(Class::getSimpleName)
+                        .findFirst()
+                        .orElse(type.getSimpleName());
+            }
+            return ClassUtils.getUserClass(type).getSimpleName();
+        }
+    };
+
+    public MethodProfiler(ProfilerProperties properties) {
+        this.slowCallNanos = properties.getSlowCallThreshold().toNanos();
+        this.slowCallsKept = properties.getSlowCallsKept();
+        this.maxArgLength = properties.getMaxArgLength();
+    }
+
+    public CallStack enter() {
+        CallStack stack = callStack.get();
+        stack.push();
+        return stack;
+    }
+
+    public void exit(CallStack stack, Class<?> type, Method method, long elapsedNanos, Object[] args, boolean failed) {
+        long childNanos = stack.pop();
+        stack.addToParent(elapsedNanos);
+        MethodStats methodStats = stats.computeIfAbsent(type, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(method, key -> new MethodStats(TYPE_NAMES.get(type) + "." + method.getName()));
+        methodStats.record(elapsedNanos, elapsedNanos - childNanos, failed);
+        if (elapsedNanos >= slowCallNanos) {
+            methodStats.recordSlowCall(elapsedNanos, LoggingAspect.renderArgs(args, maxArgLength), slowCallsKept);
+        }
+    }
+
+    public List<MethodProfileDto> top(int limit, String sort) {
+        Comparator<MethodProfileDto> order = switch (sort) {
+            case "self" -> Comparator.comparingDouble(MethodProfileDto::selfMs);
+            case "calls" -> Comparator.comparingLong(MethodProfileDto::calls);
+            case "mean" -> Comparator.comparingDouble(MethodProfileDto::meanMs);
+            case "p99" -> Comparator.comparingDouble(MethodProfileDto::p99Ms);
+            case "max" -> Comparator.comparingDouble(MethodProfileDto::maxMs);
+            default -> Comparator.comparingDouble(MethodProfileDto::totalMs);
+        };
+        List<MethodProfileDto> profile = new ArrayList<>();
+        stats.values().forEach(methods -> methods.values().forEach(methodStats -> {
+            if (methodStats.calls.sum() > 0) {
+                profile.add(methodStats.toDto());
+            }
+        }));
+        profile.sort(order.reversed());
+        return profile.subList(0, Math.min(limit, profile.size()));
+    }
+
+    public void reset() {
+        stats.values().forEach(methods -> methods.values().forEach(MethodStats::reset));
+    }
+
+    // Время вложенных профилируемых вызовов по уровням стека текущего потока, без аллокаций на вызов.
+    public static final class CallStack {
+        private long[] childNanos = new long[32];
+        private int depth;
+
+        void push() {
+            if (depth == childNanos.length) {
+                childNanos = Arrays.copyOf(childNanos, depth * 2);
+            }
+            childNanos[depth++] = 0;
+        }
+
+        long pop() {
+            return childNanos[--depth];
+        }
+
+        void addToParent(long elapsedNanos) {
+            if (depth > 0) {
+                childNanos[depth - 1] += elapsedNanos;
+            }
+        }
+    }
+
+    private static final class MethodStats {
+        private final String name;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder selfNanos = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final Deque<MethodProfileDto.SlowCall> slowCalls = new ArrayDeque<>();
+
+        MethodStats(String name) {
+            this.name = name;
+        }
+
+        void record(long elapsedNanos, long ownNanos, boolean failed) {
+            calls.increment();
+            totalNanos.add(elapsedNanos);
+            selfNanos.add(ownNanos);
+            if (failed) {
+                errors.increment();
+            }
+            latency.record(elapsedNanos);
+        }
+
+        synchronized void recordSlowCall(long elapsedNanos, String args, int kept) {
+            slowCalls.addLast(new MethodProfileDto.SlowCall(Instant.now(), millis(elapsedNanos), args));
+            while (slowCalls.size() > kept) {
+                slowCalls.removeFirst();
+            }
+        }
+
+        synchronized List<MethodProfileDto.SlowCall> slowCalls() {
+            return List.copyOf(slowCalls);
+        }
+
+        MethodProfileDto toDto() {
+            long count = calls.sum();
+            long total = totalNanos.sum();
+            return new MethodProfileDto(name, count, errors.sum(), millis(total), millis(selfNanos.sum()),
+                    count == 0 ? 0 : millis(total / count),
+                    latency.percentileMicros(0.5) / 1_000.0, latency.percentileMicros(0.9) / 1_000.0,
+                    latency.percentileMicros(0.99) / 1_000.0, latency.getMaxMicros() / 1_000.0, slowCalls());
+        }
+
+        synchronized void reset() {
+            calls.reset();
+            errors.reset();
+            totalNanos.reset();
+            selfNanos.reset();
+            latency.reset();
+            slowCalls.clear();
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
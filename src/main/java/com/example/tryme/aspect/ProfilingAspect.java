@@ -0,0 +1,39 @@
+package com.example.tryme.aspect;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+// Внутри LoggingAspect: время трассировки не попадает в профиль метода.
+@Aspect
+@Component
+@Order(2)
+@ConditionalOnProperty(prefix = "app.profiler", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ProfilingAspect {
+    private final MethodProfiler profiler;
+
+    public ProfilingAspect(MethodProfiler profiler) {
+        this.profiler = profiler;
+    }
+
+    // Репозитории Spring Data - прокси над SimpleJpaRepository, within(...Repository..*) их не ловит.
+    @Around("within(com.example.tryme.services..*) || target(org.springframework.data.repository.Repository)")
+    public Object profile(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodProfiler.CallStack stack = profiler.enter();
+        boolean failed = true;
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            failed = false;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            profiler.exit(stack, joinPoint.getTarget().getClass(), ((MethodSignature) joinPoint.getSignature()).getMethod(),
+                    elapsed, joinPoint.getArgs(), failed);
+        }
+    }
+}
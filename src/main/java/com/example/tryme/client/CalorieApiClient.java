@@ -0,0 +1,32 @@
+package com.example.tryme.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+// Исходящий клиент к сервису калорийности. Ошибочные HTTP-статусы пробрасываются как
+// HttpClientErrorException/HttpServerErrorException, сетевые ошибки - как ResourceAccessException.
+public interface CalorieApiClient {
+    String search(String term);
+
+    // Тело успешного ответа читается прямо из потока соединения; поток закрывает клиент.
+    // Реализация по умолчанию для клиентов без потокового чтения разбирает уже прочитанную строку.
+    default <T> T search(String term, ResponseReader<T> reader) {
+        String body = search(term);
+        try {
+            return reader.read(new ByteArrayInputStream(body == null ? new byte[0] : body.getBytes(StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    Map<String, Object> getStatistics();
+
+    @FunctionalInterface
+    interface ResponseReader<T> {
+        T read(InputStream body) throws IOException;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.tryme.client;
+
+// Вызов не выполнялся: цепь разомкнута или исчерпан лимит одновременных обращений.
+public class CalorieApiUnavailableException extends RuntimeException {
+    public CalorieApiUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.tryme.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import com.example.tryme.config.CaloriesProperties;
+
+// java.net.http клиент: HTTP/2 там, где сервер его поддерживает (ALPN), иначе HTTP/1.1 с keep-alive.
+public class JdkCalorieApiClient implements CalorieApiClient {
+    private final URI url;
+    private final HttpClient httpClient;
+    private final CaloriesProperties.Api api;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder http2Responses = new LongAdder();
+
+    public JdkCalorieApiClient(CaloriesProperties.Api api) {
+        this.api = api;
+        this.url = URI.create(api.getUrl());
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(api.getConnectTimeout())
+                .build();
+    }
+
+    @Override
+    public String search(String term) {
+        return search(term, body -> new String(body.readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public <T> T search(String term, ResponseReader<T> reader) {
+        HttpRequest request = HttpRequest.newBuilder(url)
+                .timeout(api.getReadTimeout())
+                .header(HttpHeaders.CONTENT_TYPE, "application/x-www-form-urlencoded")
+                .header(HttpHeaders.ACCEPT, "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("term=" + URLEncoder.encode(term, StandardCharsets.UTF_8)))
+                .build();
+        requests.increment();
+        try {
+            HttpResponse<InputStream> response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            if (response.version() == HttpClient.Version.HTTP_2) {
+                http2Responses.increment();
+            }
+            try (InputStream body = response.body()) {
+                HttpStatusCode status = HttpStatusCode.valueOf(response.statusCode());
+                if (status.is4xxClientError()) {
+                    throw HttpClientErrorException.create(status, String.valueOf(status.value()), null, body.readAllBytes(), StandardCharsets.UTF_8);
+                }
+                if (status.is5xxServerError()) {
+                    throw HttpServerErrorException.create(status, String.valueOf(status.value()), null, body.readAllBytes(), StandardCharsets.UTF_8);
+                }
+                return reader.read(body);
+            }
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on POST request for \"" + url + "\": " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResourceAccessException("Interrupted POST request for \"" + url + "\"");
+        }
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("client", "jdk");
+        statistics.put("requests", requests.sum());
+        statistics.put("http2Responses", http2Responses.sum());
+        return statistics;
+    }
+}
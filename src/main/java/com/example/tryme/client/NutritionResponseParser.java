@@ -0,0 +1,71 @@
+package com.example.tryme.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+// Потоковый разбор ответа db123.php: {"results":[{"text":...,"cal":...}, ...]}. Нужен только первый результат,
+// поэтому чтение прекращается сразу после него - дерево не строится, остальной массив не разбирается.
+public final class NutritionResponseParser {
+    // Потоком владеет HTTP-клиент: парсер его не закрывает, чтобы клиент мог дочитать хвост и вернуть соединение в пул.
+    private static final JsonFactory jsonFactory = JsonFactory.builder()
+            .disable(JsonFactory.Feature.INTERN_FIELD_NAMES)
+            .build()
+            .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+
+    private NutritionResponseParser() {
+    }
+
+    // Первый результат или null, если results отсутствует, пуст или не является массивом.
+    // Ошибка синтаксиса до первого результата - JsonProcessingException.
+    public static Match parseFirst(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (!"results".equals(field)) {
+                    parser.skipChildren();
+                } else if (value != JsonToken.START_ARRAY) {
+                    return null;
+                } else {
+                    return readFirstResult(parser);
+                }
+            }
+            return null;
+        }
+    }
+
+    private static Match readFirstResult(JsonParser parser) throws IOException {
+        JsonToken first = parser.nextToken();
+        if (first == JsonToken.END_ARRAY || first == null) {
+            return null;
+        }
+        if (first != JsonToken.START_OBJECT) {
+            return new Match(null, 0);
+        }
+        String text = null;
+        int calories = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("text".equals(field)) {
+                text = parser.getValueAsString();
+            } else if ("cal".equals(field)) {
+                calories = parser.getValueAsInt(0);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return new Match(text, calories);
+    }
+
+    // text == null - поле отсутствует или null; cal без числового значения дает 0.
+    public record Match(String text, int calories) {
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.tryme.client;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+
+import com.example.tryme.config.CaloriesProperties;
+
+// HTTP/1.1 клиент с пулом keep-alive соединений (Apache HttpClient 5).
+public class PooledCalorieApiClient implements CalorieApiClient, AutoCloseable {
+    private final String url;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final RestTemplate restTemplate;
+    private final LongAdder requests = new LongAdder();
+
+    public PooledCalorieApiClient(CaloriesProperties.Api api) {
+        this.url = api.getUrl();
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(api.getMaxConnections())
+                .setMaxConnPerRoute(api.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(api.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(api.getReadTimeout()))
+                        .setTimeToLive(TimeValue.ofMilliseconds(api.getConnectionTimeToLive().toMillis()))
+                        .build())
+                .build();
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(api.getConnectionRequestTimeout()))
+                        .setResponseTimeout(Timeout.of(api.getReadTimeout()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(api.getIdleTimeout().toMillis()))
+                .build();
+        this.restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+
+    @Override
+    public String search(String term) {
+        requests.increment();
+        return restTemplate.postForEntity(url, formRequest(term), String.class).getBody();
+    }
+
+    // После reader ответ закрывается: непрочитанный хвост дочитывается в буфер фиксированного размера,
+    // и соединение возвращается в пул, а не рвется.
+    @Override
+    public <T> T search(String term, ResponseReader<T> reader) {
+        requests.increment();
+        return restTemplate.execute(url, HttpMethod.POST, restTemplate.httpEntityCallback(formRequest(term)),
+                response -> reader.read(response.getBody()));
+    }
+
+    private static HttpEntity<MultiValueMap<String, String>> formRequest(String term) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+
+        MultiValueMap<String, String> body = new LinkedMultiValueMap<>();
+        body.add("term", term);
+        return new HttpEntity<>(body, headers);
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        PoolStats stats = connectionManager.getTotalStats();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("client", "pooled");
+        statistics.put("requests", requests.sum());
+        statistics.put("leased", stats.getLeased());
+        statistics.put("available", stats.getAvailable());
+        statistics.put("pending", stats.getPending());
+        statistics.put("max", stats.getMax());
+        return statistics;
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.tryme.client;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import com.example.tryme.config.CaloriesProperties;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+
+// Каждая попытка проходит через bulkhead и circuit breaker; повторяются только сетевые ошибки и 5xx,
+// паузы между попытками - экспоненциальные со случайным разбросом.
+public class ResilientCalorieApiClient implements CalorieApiClient, AutoCloseable {
+    private final CalorieApiClient delegate;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final Retry retry;
+
+    public ResilientCalorieApiClient(CalorieApiClient delegate, CaloriesProperties.Resilience resilience) {
+        this.delegate = delegate;
+        this.circuitBreaker = CircuitBreaker.of("calorieApi", CircuitBreakerConfig.custom()
+                .failureRateThreshold(resilience.getFailureRateThreshold())
+                .slowCallRateThreshold(resilience.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(resilience.getSlowCallDuration())
+                .slidingWindowSize(resilience.getSlidingWindowSize())
+                .minimumNumberOfCalls(resilience.getMinimumNumberOfCalls())
+                .waitDurationInOpenState(resilience.getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(resilience.getPermittedCallsInHalfOpenState())
+                .recordExceptions(ResourceAccessException.class, HttpServerErrorException.class)
+                .ignoreExceptions(HttpClientErrorException.class)
+                .build());
+        this.bulkhead = Bulkhead.of("calorieApi", BulkheadConfig.custom()
+                .maxConcurrentCalls(resilience.getMaxConcurrentCalls())
+                .maxWaitDuration(resilience.getMaxWaitDuration())
+                .build());
+        this.retry = Retry.of("calorieApi", RetryConfig.custom()
+                .maxAttempts(resilience.getMaxAttempts())
+                .intervalFunction(IntervalFunction.ofExponentialRandomBackoff(
+                        resilience.getInitialBackoff(), resilience.getBackoffMultiplier(), resilience.getJitter()))
+                .retryExceptions(ResourceAccessException.class, HttpServerErrorException.class)
+                .build());
+    }
+
+    @Override
+    public String search(String term) {
+        return call(() -> delegate.search(term));
+    }
+
+    // Чтение тела идет внутри попытки: ответ разбирается, пока соединение открыто.
+    @Override
+    public <T> T search(String term, ResponseReader<T> reader) {
+        return call(() -> delegate.search(term, reader));
+    }
+
+    private <T> T call(Supplier<T> call) {
+        call = Bulkhead.decorateSupplier(bulkhead, call);
+        call = CircuitBreaker.decorateSupplier(circuitBreaker, call);
+        call = Retry.decorateSupplier(retry, call);
+        try {
+            return call.get();
+        } catch (CallNotPermittedException e) {
+            throw new CalorieApiUnavailableException("Circuit breaker is open for calorie API", e);
+        } catch (BulkheadFullException e) {
+            throw new CalorieApiUnavailableException("Too many concurrent calls to calorie API", e);
+        }
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    @Override
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>(delegate.getStatistics());
+        CircuitBreaker.Metrics metrics = circuitBreaker.getMetrics();
+        statistics.put("circuitState", circuitBreaker.getState().name());
+        statistics.put("failureRate", metrics.getFailureRate());
+        statistics.put("slowCallRate", metrics.getSlowCallRate());
+        statistics.put("notPermittedCalls", metrics.getNumberOfNotPermittedCalls());
+        statistics.put("bulkheadAvailable", bulkhead.getMetrics().getAvailableConcurrentCalls());
+        statistics.put("retriedSuccessfulCalls", retry.getMetrics().getNumberOfSuccessfulCallsWithRetryAttempt());
+        statistics.put("retriedFailedCalls", retry.getMetrics().getNumberOfFailedCallsWithRetryAttempt());
+        return statistics;
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (delegate instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+}
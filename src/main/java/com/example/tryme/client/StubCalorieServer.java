@@ -0,0 +1,195 @@
+package com.example.tryme.client;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// Локальная замена db123.php для офлайн-замеров исходящего клиента: отвечает детерминированно,
+// термины, начинающиеся с "unknown", возвращают пустой список результатов.
+// Задержка берется из распределения, а доля errorRate запросов получает 500 - как у перегруженного calculat.ru.
+public class StubCalorieServer implements AutoCloseable {
+    public static final String PATH = "/wp-content/themes/EmptyCanvas/db123.php";
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Latency latency;
+    private final double errorRate;
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder injectedErrors = new LongAdder();
+
+    public StubCalorieServer(int port, Duration latency) throws IOException {
+        this(port, Latency.fixed(latency), 0.0);
+    }
+
+    public StubCalorieServer(int port, Latency latency, double errorRate) throws IOException {
+        this.latency = latency;
+        this.errorRate = errorRate;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = Executors.newCachedThreadPool(new CustomizableThreadFactory("calorie-stub-"));
+        this.server.createContext(PATH, this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    public StubCalorieServer start() {
+        server.start();
+        return this;
+    }
+
+    public String getUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + PATH;
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getInjectedErrors() {
+        return injectedErrors.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public static String responseFor(String term) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        if (term.isEmpty() || term.startsWith("unknown")) {
+            response.put("results", List.of());
+        } else {
+            Map<String, Object> match = new LinkedHashMap<>();
+            match.put("text", term);
+            match.put("cal", Math.floorMod(term.hashCode(), 600) + 20);
+            response.put("results", List.of(match));
+        }
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.increment();
+        String term = "";
+        String form = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        for (String pair : form.split("&")) {
+            if (pair.startsWith("term=")) {
+                term = URLDecoder.decode(pair.substring(5), StandardCharsets.UTF_8);
+            }
+        }
+        long delayMillis = latency.nextMillis();
+        if (delayMillis > 0) {
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        boolean fail = errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate;
+        if (fail) {
+            injectedErrors.increment();
+        }
+        byte[] body = (fail ? "Internal Server Error" : responseFor(term)).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", fail ? "text/plain; charset=utf-8" : "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(fail ? 500 : 200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // Аргументы: порт, задержка (число миллисекунд или спецификация Latency.parse), доля ошибок.
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 18080;
+        Latency latency = Latency.parse(args.length > 1 ? args[1] : "0");
+        double errorRate = args.length > 2 ? Double.parseDouble(args[2]) : 0.0;
+        StubCalorieServer server = new StubCalorieServer(port, latency, errorRate).start();
+        System.out.println("Stub calorie API listening on " + server.getUrl() + " (latency " + latency
+                + ", error rate " + errorRate + ")");
+    }
+
+    // Распределение задержки ответа в миллисекундах.
+    public interface Latency {
+        long nextMillis();
+
+        static Latency fixed(Duration delay) {
+            long millis = delay.toMillis();
+            return describe(() -> millis, "fixed:" + millis);
+        }
+
+        static Latency uniform(Duration min, Duration max) {
+            long from = min.toMillis();
+            long to = max.toMillis();
+            if (to < from) {
+                throw new IllegalArgumentException("Uniform latency max is below min: " + from + "-" + to);
+            }
+            return describe(() -> ThreadLocalRandom.current().nextLong(from, to + 1), "uniform:" + from + "-" + to);
+        }
+
+        // Лог-нормальное распределение по медиане и 99-му перцентилю: длинный хвост, как у реального внешнего API.
+        static Latency logNormal(Duration median, Duration p99) {
+            double mu = Math.log(Math.max(1, median.toMillis()));
+            double sigma = Math.max(0, Math.log(Math.max(1, p99.toMillis())) - mu) / 2.326;
+            return describe(() -> Math.round(Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian())),
+                    "lognormal:" + median.toMillis() + "/" + p99.toMillis());
+        }
+
+        // "50", "fixed:50", "uniform:20-200" или "lognormal:80/800" (медиана/p99), все значения в миллисекундах.
+        static Latency parse(String spec) {
+            String value = spec.trim();
+            int colon = value.indexOf(':');
+            String kind = colon < 0 ? "fixed" : value.substring(0, colon);
+            String arguments = colon < 0 ? value : value.substring(colon + 1);
+            try {
+                return switch (kind) {
+                    case "fixed" -> fixed(millis(arguments));
+                    case "uniform" -> uniform(millis(arguments.substring(0, arguments.indexOf('-'))),
+                            millis(arguments.substring(arguments.indexOf('-') + 1)));
+                    case "lognormal" -> logNormal(millis(arguments.substring(0, arguments.indexOf('/'))),
+                            millis(arguments.substring(arguments.indexOf('/') + 1)));
+                    default -> throw new IllegalArgumentException("Unknown latency distribution: " + kind);
+                };
+            } catch (IndexOutOfBoundsException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid latency spec: " + spec, e);
+            }
+        }
+
+        private static Duration millis(String value) {
+            return Duration.ofMillis(Long.parseLong(value.trim()));
+        }
+
+        private static Latency describe(Latency latency, String description) {
+            return new Latency() {
+                @Override
+                public long nextMillis() {
+                    return latency.nextMillis();
+                }
+
+                @Override
+                public String toString() {
+                    return description;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.tryme.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheProperties {
+    private Spec defaults = new Spec(10_000L, Duration.ofMinutes(10), null);
+    private Map<String, Spec> names = new HashMap<>();
+
+    public Spec getDefaults() { return defaults; }
+    public void setDefaults(Spec defaults) { this.defaults = defaults; }
+    public Map<String, Spec> getNames() { return names; }
+    public void setNames(Map<String, Spec> names) { this.names = names; }
+
+    public Spec specFor(String cacheName) {
+        Spec override = names.get(cacheName);
+        if (override == null) {
+            return defaults;
+        }
+        return new Spec(
+                override.getMaximumWeight() != null ? override.getMaximumWeight() : defaults.getMaximumWeight(),
+                override.getExpireAfterWrite() != null ? override.getExpireAfterWrite() : defaults.getExpireAfterWrite(),
+                override.getExpireAfterAccess() != null ? override.getExpireAfterAccess() : defaults.getExpireAfterAccess());
+    }
+
+    public static class Spec {
+        // Суммарный вес записей пространства: вес записи = число элементов в списке.
+        private Long maximumWeight;
+        private Duration expireAfterWrite;
+        private Duration expireAfterAccess;
+
+        public Spec() {}
+
+        public Spec(Long maximumWeight, Duration expireAfterWrite, Duration expireAfterAccess) {
+            this.maximumWeight = maximumWeight;
+            this.expireAfterWrite = expireAfterWrite;
+            this.expireAfterAccess = expireAfterAccess;
+        }
+
+        public Long getMaximumWeight() { return maximumWeight; }
+        public void setMaximumWeight(Long maximumWeight) { this.maximumWeight = maximumWeight; }
+        public Duration getExpireAfterWrite() { return expireAfterWrite; }
+        public void setExpireAfterWrite(Duration expireAfterWrite) { this.expireAfterWrite = expireAfterWrite; }
+        public Duration getExpireAfterAccess() { return expireAfterAccess; }
+        public void setExpireAfterAccess(Duration expireAfterAccess) { this.expireAfterAccess = expireAfterAccess; }
+    }
+}
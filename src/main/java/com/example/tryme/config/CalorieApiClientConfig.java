@@ -0,0 +1,21 @@
+package com.example.tryme.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.tryme.client.CalorieApiClient;
+import com.example.tryme.client.JdkCalorieApiClient;
+import com.example.tryme.client.PooledCalorieApiClient;
+import com.example.tryme.client.ResilientCalorieApiClient;
+
+@Configuration
+public class CalorieApiClientConfig {
+    @Bean
+    public CalorieApiClient calorieApiClient(CaloriesProperties caloriesProperties) {
+        CaloriesProperties.Api api = caloriesProperties.getApi();
+        CalorieApiClient transport = "jdk".equals(api.getClient())
+                ? new JdkCalorieApiClient(api)
+                : new PooledCalorieApiClient(api);
+        return new ResilientCalorieApiClient(transport, caloriesProperties.getResilience());
+    }
+}
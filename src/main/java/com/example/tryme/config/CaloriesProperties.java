@@ -0,0 +1,154 @@
+package com.example.tryme.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.calories")
+public class CaloriesProperties {
+    private Lookup lookup = new Lookup();
+    private Api api = new Api();
+    private Resilience resilience = new Resilience();
+    private Jobs jobs = new Jobs();
+    private Batch batch = new Batch();
+
+    public Lookup getLookup() { return lookup; }
+    public void setLookup(Lookup lookup) { this.lookup = lookup; }
+    public Api getApi() { return api; }
+    public void setApi(Api api) { this.api = api; }
+    public Resilience getResilience() { return resilience; }
+    public void setResilience(Resilience resilience) { this.resilience = resilience; }
+    public Jobs getJobs() { return jobs; }
+    public void setJobs(Jobs jobs) { this.jobs = jobs; }
+    public Batch getBatch() { return batch; }
+    public void setBatch(Batch batch) { this.batch = batch; }
+
+    public static class Lookup {
+        // Общий пул потоков для обращений к внешнему API и лимит параллельных запросов на один расчет.
+        private int poolSize = 16;
+        private int queueCapacity = 256;
+        private int parallelism = 4;
+        // Сколько живут сохраненные ответы внешнего API: найденные и "не найдено".
+        private Duration freshness = Duration.ofDays(30);
+        private Duration negativeFreshness = Duration.ofHours(12);
+
+        public int getPoolSize() { return poolSize; }
+        public void setPoolSize(int poolSize) { this.poolSize = poolSize; }
+        public int getQueueCapacity() { return queueCapacity; }
+        public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+        public int getParallelism() { return parallelism; }
+        public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+        public Duration getFreshness() { return freshness; }
+        public void setFreshness(Duration freshness) { this.freshness = freshness; }
+        public Duration getNegativeFreshness() { return negativeFreshness; }
+        public void setNegativeFreshness(Duration negativeFreshness) { this.negativeFreshness = negativeFreshness; }
+    }
+
+    public static class Api {
+        // pooled - Apache HttpClient с пулом соединений, jdk - java.net.http с HTTP/2.
+        private String client = "pooled";
+        private String url = "https://calculat.ru/wp-content/themes/EmptyCanvas/db123.php";
+        private int maxConnections = 50;
+        private int maxConnectionsPerRoute = 20;
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration readTimeout = Duration.ofSeconds(5);
+        private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+        private Duration connectionTimeToLive = Duration.ofMinutes(5);
+        private Duration idleTimeout = Duration.ofSeconds(30);
+
+        public String getClient() { return client; }
+        public void setClient(String client) { this.client = client; }
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+        public int getMaxConnections() { return maxConnections; }
+        public void setMaxConnections(int maxConnections) { this.maxConnections = maxConnections; }
+        public int getMaxConnectionsPerRoute() { return maxConnectionsPerRoute; }
+        public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) { this.maxConnectionsPerRoute = maxConnectionsPerRoute; }
+        public Duration getConnectTimeout() { return connectTimeout; }
+        public void setConnectTimeout(Duration connectTimeout) { this.connectTimeout = connectTimeout; }
+        public Duration getReadTimeout() { return readTimeout; }
+        public void setReadTimeout(Duration readTimeout) { this.readTimeout = readTimeout; }
+        public Duration getConnectionRequestTimeout() { return connectionRequestTimeout; }
+        public void setConnectionRequestTimeout(Duration connectionRequestTimeout) { this.connectionRequestTimeout = connectionRequestTimeout; }
+        public Duration getConnectionTimeToLive() { return connectionTimeToLive; }
+        public void setConnectionTimeToLive(Duration connectionTimeToLive) { this.connectionTimeToLive = connectionTimeToLive; }
+        public Duration getIdleTimeout() { return idleTimeout; }
+        public void setIdleTimeout(Duration idleTimeout) { this.idleTimeout = idleTimeout; }
+    }
+
+    public static class Resilience {
+        private float failureRateThreshold = 50;
+        private float slowCallRateThreshold = 80;
+        private Duration slowCallDuration = Duration.ofSeconds(3);
+        private int slidingWindowSize = 20;
+        private int minimumNumberOfCalls = 10;
+        private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+        private int permittedCallsInHalfOpenState = 3;
+        private int maxConcurrentCalls = 20;
+        private Duration maxWaitDuration = Duration.ofMillis(100);
+        private int maxAttempts = 3;
+        private Duration initialBackoff = Duration.ofMillis(200);
+        private double backoffMultiplier = 2.0;
+        private double jitter = 0.5;
+
+        public float getFailureRateThreshold() { return failureRateThreshold; }
+        public void setFailureRateThreshold(float failureRateThreshold) { this.failureRateThreshold = failureRateThreshold; }
+        public float getSlowCallRateThreshold() { return slowCallRateThreshold; }
+        public void setSlowCallRateThreshold(float slowCallRateThreshold) { this.slowCallRateThreshold = slowCallRateThreshold; }
+        public Duration getSlowCallDuration() { return slowCallDuration; }
+        public void setSlowCallDuration(Duration slowCallDuration) { this.slowCallDuration = slowCallDuration; }
+        public int getSlidingWindowSize() { return slidingWindowSize; }
+        public void setSlidingWindowSize(int slidingWindowSize) { this.slidingWindowSize = slidingWindowSize; }
+        public int getMinimumNumberOfCalls() { return minimumNumberOfCalls; }
+        public void setMinimumNumberOfCalls(int minimumNumberOfCalls) { this.minimumNumberOfCalls = minimumNumberOfCalls; }
+        public Duration getWaitDurationInOpenState() { return waitDurationInOpenState; }
+        public void setWaitDurationInOpenState(Duration waitDurationInOpenState) { this.waitDurationInOpenState = waitDurationInOpenState; }
+        public int getPermittedCallsInHalfOpenState() { return permittedCallsInHalfOpenState; }
+        public void setPermittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) { this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState; }
+        public int getMaxConcurrentCalls() { return maxConcurrentCalls; }
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) { this.maxConcurrentCalls = maxConcurrentCalls; }
+        public Duration getMaxWaitDuration() { return maxWaitDuration; }
+        public void setMaxWaitDuration(Duration maxWaitDuration) { this.maxWaitDuration = maxWaitDuration; }
+        public int getMaxAttempts() { return maxAttempts; }
+        public void setMaxAttempts(int maxAttempts) { this.maxAttempts = maxAttempts; }
+        public Duration getInitialBackoff() { return initialBackoff; }
+        public void setInitialBackoff(Duration initialBackoff) { this.initialBackoff = initialBackoff; }
+        public double getBackoffMultiplier() { return backoffMultiplier; }
+        public void setBackoffMultiplier(double backoffMultiplier) { this.backoffMultiplier = backoffMultiplier; }
+        public double getJitter() { return jitter; }
+        public void setJitter(double jitter) { this.jitter = jitter; }
+    }
+
+    public static class Jobs {
+        // Фоновые расчеты: сверх poolSize + queueCapacity задач новые отклоняются с 429.
+        private int poolSize = 4;
+        private int queueCapacity = 100;
+        // Сколько хранится результат завершенной задачи и сколько живет SSE-подписка.
+        private Duration retention = Duration.ofMinutes(15);
+        private Duration eventsTimeout = Duration.ofMinutes(5);
+
+        public int getPoolSize() { return poolSize; }
+        public void setPoolSize(int poolSize) { this.poolSize = poolSize; }
+        public int getQueueCapacity() { return queueCapacity; }
+        public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+        public Duration getRetention() { return retention; }
+        public void setRetention(Duration retention) { this.retention = retention; }
+        public Duration getEventsTimeout() { return eventsTimeout; }
+        public void setEventsTimeout(Duration eventsTimeout) { this.eventsTimeout = eventsTimeout; }
+    }
+
+    public static class Batch {
+        // Пакет больше этих пределов отклоняется целиком с 400.
+        private int maxMeals = 1000;
+        private int maxItems = 10000;
+        // Сколько уникальных терминов пакета разрешается одновременно.
+        private int parallelism = 8;
+
+        public int getMaxMeals() { return maxMeals; }
+        public void setMaxMeals(int maxMeals) { this.maxMeals = maxMeals; }
+        public int getMaxItems() { return maxItems; }
+        public void setMaxItems(int maxItems) { this.maxItems = maxItems; }
+        public int getParallelism() { return parallelism; }
+        public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+    }
+}
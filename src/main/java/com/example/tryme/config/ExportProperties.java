@@ -0,0 +1,12 @@
+package com.example.tryme.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.export")
+public class ExportProperties {
+    // Сколько строк драйвер забирает с серверного курсора за один раз.
+    private int fetchSize = 500;
+
+    public int getFetchSize() { return fetchSize; }
+    public void setFetchSize(int fetchSize) { this.fetchSize = fetchSize; }
+}
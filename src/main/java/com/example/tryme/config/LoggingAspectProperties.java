@@ -0,0 +1,34 @@
+package com.example.tryme.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.logging.aspect")
+public class LoggingAspectProperties {
+    // full - каждый вызов, sampled - доля вызовов по слоям, off - только исключения.
+    public enum Mode { FULL, SAMPLED, OFF }
+
+    private Mode mode = Mode.FULL;
+    private double controllerSampleRate = 1.0;
+    private double serviceSampleRate = 1.0;
+    private double repositorySampleRate = 1.0;
+    // Предел длины одного отрендеренного аргумента или результата.
+    private int maxArgLength = 200;
+    // Запись в appender из фонового потока; при переполнении очереди записи отбрасываются.
+    private boolean async = true;
+    private int queueCapacity = 8192;
+
+    public Mode getMode() { return mode; }
+    public void setMode(Mode mode) { this.mode = mode; }
+    public double getControllerSampleRate() { return controllerSampleRate; }
+    public void setControllerSampleRate(double controllerSampleRate) { this.controllerSampleRate = controllerSampleRate; }
+    public double getServiceSampleRate() { return serviceSampleRate; }
+    public void setServiceSampleRate(double serviceSampleRate) { this.serviceSampleRate = serviceSampleRate; }
+    public double getRepositorySampleRate() { return repositorySampleRate; }
+    public void setRepositorySampleRate(double repositorySampleRate) { this.repositorySampleRate = repositorySampleRate; }
+    public int getMaxArgLength() { return maxArgLength; }
+    public void setMaxArgLength(int maxArgLength) { this.maxArgLength = maxArgLength; }
+    public boolean isAsync() { return async; }
+    public void setAsync(boolean async) { this.async = async; }
+    public int getQueueCapacity() { return queueCapacity; }
+    public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+}
@@ -0,0 +1,23 @@
+package com.example.tryme.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.profiler")
+public class ProfilerProperties {
+    private boolean enabled = true;
+    // Вызовы дольше порога сохраняются вместе с аргументами, по slowCallsKept последних на метод.
+    private Duration slowCallThreshold = Duration.ofMillis(250);
+    private int slowCallsKept = 5;
+    private int maxArgLength = 200;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public Duration getSlowCallThreshold() { return slowCallThreshold; }
+    public void setSlowCallThreshold(Duration slowCallThreshold) { this.slowCallThreshold = slowCallThreshold; }
+    public int getSlowCallsKept() { return slowCallsKept; }
+    public void setSlowCallsKept(int slowCallsKept) { this.slowCallsKept = slowCallsKept; }
+    public int getMaxArgLength() { return maxArgLength; }
+    public void setMaxArgLength(int maxArgLength) { this.maxArgLength = maxArgLength; }
+}
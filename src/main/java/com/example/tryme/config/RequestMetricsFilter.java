@@ -0,0 +1,72 @@
+package com.example.tryme.config;
+
+import java.io.IOException;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.example.tryme.services.RequestCounter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Замер каждого HTTP-запроса. Эндпоинт определяется по шаблону пути ("/meals/{id}"), а не по самому URI,
+// чтобы число счетчиков не росло с числом разных id. Для потоковых ответов время считается до завершения async.
+@Component
+public class RequestMetricsFilter extends OncePerRequestFilter {
+    private static final String UNMATCHED = "UNMATCHED";
+
+    private final RequestCounter requestCounter;
+
+    public RequestMetricsFilter(RequestCounter requestCounter) {
+        this.requestCounter = requestCounter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            String method = request.getMethod();
+            String uri = endpointOf(request);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        requestCounter.record(method, uri, response.getStatus(), System.nanoTime() - start);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                // Исключение, не обработанное advice, контейнер превратит в 500.
+                int status = completed ? response.getStatus() : HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+                requestCounter.record(method, uri, status, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static String endpointOf(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : UNMATCHED;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.tryme.config;
+
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Таблицы, созданные при IDENTITY, уже содержат строки, а новые последовательности начинаются с 1.
+// При старте сдвигаем каждую последовательность за MAX(id), иначе pooled-оптимизатор выдаст занятые id.
+// EntityManagerFactory зависит от этого бина, поэтому выравнивание заканчивается до того, как сервер начнет принимать запросы.
+@Component
+@ConditionalOnProperty(name = "app.db.align-sequences", havingValue = "true", matchIfMissing = true)
+public class SequenceAlignment implements InitializingBean {
+    private static final Logger logger = LoggerFactory.getLogger(SequenceAlignment.class);
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "meal", "meal_seq",
+            "product", "product_seq",
+            "meal_product", "meal_product_seq");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SequenceAlignment(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equalsIgnoreCase(database)) {
+            logger.info("Sequence alignment skipped for database {}", database);
+            return;
+        }
+        SEQUENCES.forEach(this::align);
+    }
+
+    // Pooled-оптимизатор считает значение nextval верхней границей блока, поэтому setval(seq, n) с is_called = true
+    // означает, что следующий блок начнется с n + 1. Пропускаем только такую последовательность, уже ушедшую за MAX(id):
+    // при is_called = false nextval вернет сам last_value, и блок под ним может задеть существующие строки.
+    // Выполняется раньше ddl-auto=update: еще не созданные таблицы пропускаем, а недостающую последовательность
+    // создаем сами с тем же шагом, что и allocationSize в сущностях.
+    private void align(String table, String sequence) {
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, table))) {
+            return;
+        }
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+        if (maxId == null) {
+            return;
+        }
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence + " START WITH 1 INCREMENT BY 50");
+        Map<String, Object> state = jdbcTemplate.queryForMap("SELECT last_value, is_called FROM " + sequence);
+        long lastValue = ((Number) state.get("last_value")).longValue();
+        if (Boolean.TRUE.equals(state.get("is_called")) && lastValue >= maxId) {
+            return;
+        }
+        long aligned = Math.max(maxId, lastValue);
+        jdbcTemplate.queryForObject("SELECT setval(?::regclass, ?, true)", Long.class, sequence, aligned);
+        logger.info("Sequence {} moved from {} to {} to match existing rows in {}", sequence, lastValue, aligned, table);
+    }
+
+    @Component
+    @ConditionalOnProperty(name = "app.db.align-sequences", havingValue = "true", matchIfMissing = true)
+    static class EntityManagerFactoryDependsOnSequenceAlignment extends EntityManagerFactoryDependsOnPostProcessor {
+        EntityManagerFactoryDependsOnSequenceAlignment() {
+            super(SequenceAlignment.class);
+        }
+    }
+}
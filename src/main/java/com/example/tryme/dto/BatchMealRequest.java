@@ -0,0 +1,10 @@
+package com.example.tryme.dto;
+
+import java.util.List;
+
+// Одно блюдо пакетного расчета; name необязательно.
+public record BatchMealRequest(String name, List<Item> items) {
+
+    public record Item(String food, Integer gram) {
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.tryme.dto;
+
+import java.util.List;
+
+// Результат блюда пакетного расчета в порядке запроса. Блюдо сохраняется, только если все его позиции разрешены;
+// иначе mealId == null, а причины - в error позиций.
+public record BatchMealResultDto(int index, Long mealId, String name, Long totalCalories, boolean stale,
+                                 List<Item> items, String error) {
+
+    public record Item(String food, Integer gram, String description, Long calories, String error) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.tryme.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+// result заполняется при статусе DONE, error - при FAILED.
+public record CalorieJobDto(String id, String status, int completedItems, int totalItems,
+                            List<String> result, String error, Instant submittedAt, Instant finishedAt) {
+}
@@ -0,0 +1,4 @@
+package com.example.tryme.dto;
+
+public record CalorieJobProgressDto(int index, String description, int completedItems, int totalItems) {
+}
@@ -0,0 +1,7 @@
+package com.example.tryme.dto;
+
+import java.util.List;
+
+// nextCursor - значение для параметра after следующей страницы, null если страница последняя.
+public record CursorPage<T>(List<T> items, Long nextCursor) {
+}
@@ -0,0 +1,4 @@
+package com.example.tryme.dto;
+
+public record MealCaloriesDto(Long mealId, Long totalCalories, Integer itemCount) {
+}
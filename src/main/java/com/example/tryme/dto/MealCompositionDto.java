@@ -0,0 +1,8 @@
+package com.example.tryme.dto;
+
+import java.util.List;
+
+// Итог замены состава блюда: сколько записей добавлено, изменено и удалено, и состав в порядке запроса.
+public record MealCompositionDto(Long mealId, int created, int updated, int deleted,
+                                 Long totalCalories, Integer itemCount, List<MealProductDto> items) {
+}
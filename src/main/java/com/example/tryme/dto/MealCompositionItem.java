@@ -0,0 +1,4 @@
+package com.example.tryme.dto;
+
+public record MealCompositionItem(Long productId, Integer grams) {
+}
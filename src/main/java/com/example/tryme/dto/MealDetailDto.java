@@ -0,0 +1,6 @@
+package com.example.tryme.dto;
+
+import java.util.List;
+
+public record MealDetailDto(Long id, String name, Long version, List<MealItemDto> items) {
+}
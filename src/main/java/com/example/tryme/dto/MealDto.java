@@ -0,0 +1,9 @@
+package com.example.tryme.dto;
+
+import com.example.tryme.Model.Meal;
+
+public record MealDto(Long id, String name) {
+    public static MealDto from(Meal meal) {
+        return new MealDto(meal.getId(), meal.getName());
+    }
+}
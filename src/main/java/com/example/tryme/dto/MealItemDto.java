@@ -0,0 +1,4 @@
+package com.example.tryme.dto;
+
+public record MealItemDto(Long mealProductId, Long productId, String productName, Integer caloriesPer100g, Integer grams) {
+}
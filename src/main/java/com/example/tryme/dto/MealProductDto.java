@@ -0,0 +1,10 @@
+package com.example.tryme.dto;
+
+import com.example.tryme.Model.MealProduct;
+
+public record MealProductDto(Long id, Integer grams, Long mealId, Long productId, Long version) {
+    public static MealProductDto from(MealProduct mealProduct) {
+        return new MealProductDto(mealProduct.getId(), mealProduct.getGrams(),
+                mealProduct.getMeal().getId(), mealProduct.getProduct().getId(), mealProduct.getVersion());
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.tryme.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+// Время в миллисекундах; selfMs - без времени вложенных профилируемых вызовов в том же потоке.
+public record MethodProfileDto(String method, long calls, long errors, double totalMs, double selfMs, double meanMs,
+                               double p50Ms, double p90Ms, double p99Ms, double maxMs, List<SlowCall> slowCalls) {
+
+    public record SlowCall(Instant at, double durationMs, String args) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.tryme.dto;
+
+import com.example.tryme.Model.Product;
+
+public record ProductDto(Long id, String name, Integer caloriesPer100g, Long version) {
+    public static ProductDto from(Product product) {
+        return new ProductDto(product.getId(), product.getName(), product.getCaloriesPer100g(), product.getVersion());
+    }
+}
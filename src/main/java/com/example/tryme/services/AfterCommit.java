@@ -0,0 +1,25 @@
+package com.example.tryme.services;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Работа с кэшем после фиксации транзакции: до нее параллельное чтение успело бы снова закэшировать
+// старые строки, а при откате в кэше осталось бы то, чего в БД нет. Вне транзакции действие выполняется сразу.
+final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -1,30 +1,202 @@
 package com.example.tryme.services;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 import org.springframework.stereotype.Service;
 
+import com.example.tryme.config.CacheProperties;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.github.benmanes.caffeine.cache.stats.ConcurrentStatsCounter;
+
 @Service
 public class CacheService {
-    private final ConcurrentHashMap<String, List<?>> cache;
+    private final CacheProperties properties;
+    private final ConcurrentHashMap<String, Segment> cache;
 
-    public CacheService() {
+    public CacheService(CacheProperties properties) {
+        this.properties = properties;
         this.cache = new ConcurrentHashMap<>();
     }
 
     @SuppressWarnings("unchecked")
     public <T> List<T> getFromCache(String cacheName, String key) {
-        String fullKey = cacheName + "::" + key;
-        return (List<T>) cache.get(fullKey);
+        Segment segment = cache.get(cacheName);
+        if (segment == null) {
+            return null;
+        }
+        Entry entry = segment.current.entries.getIfPresent(key);
+        return entry != null ? (List<T>) entry.value() : null;
     }
 
     public <T> void putToCache(String cacheName, String key, List<T> value) {
-        String fullKey = cacheName + "::" + key;
-        cache.put(fullKey, value);
+        put(segment(cacheName).current, key, new Entry(value, List.of()), false);
+    }
+
+    // Запрос, результат которого зависит от перечисленных сущностей: при изменении любой из них
+    // запись будет вытеснена через invalidateDependents, а сам ключ становится доступен для evictIf.
+    public <T> void putToCache(String cacheName, String key, List<T> value, Collection<Long> dependsOn) {
+        put(segment(cacheName).current, key, new Entry(value, List.copyOf(dependsOn)), true);
+    }
+
+    // Перезапись ключа снимает регистрации прежней записи, иначе устаревшие зависимости
+    // вытеснили бы новое значение, а evictIf продолжал бы видеть ключ.
+    private static void put(Generation generation, String key, Entry entry, boolean tracked) {
+        generation.entries.asMap().compute(key, (k, previous) -> {
+            if (previous != null) {
+                generation.unregister(k, previous);
+            }
+            if (tracked) {
+                generation.register(k, entry);
+            }
+            return entry;
+        });
+    }
+
+    public void evict(String cacheName, String key) {
+        Segment segment = cache.get(cacheName);
+        if (segment != null) {
+            segment.current.remove(key);
+        }
     }
 
+    public void invalidateDependents(String cacheName, Long entityId) {
+        Segment segment = cache.get(cacheName);
+        if (segment == null) {
+            return;
+        }
+        Generation generation = segment.current;
+        Set<String> keys = generation.dependents.remove(entityId);
+        if (keys != null) {
+            keys.forEach(generation::remove);
+        }
+    }
+
+    public void evictIf(String cacheName, Predicate<String> keyPredicate) {
+        Segment segment = cache.get(cacheName);
+        if (segment == null) {
+            return;
+        }
+        Generation generation = segment.current;
+        for (String key : generation.queryKeys) {
+            if (keyPredicate.test(key)) {
+                generation.remove(key);
+            }
+        }
+    }
+
+    // Сегмент не очищается поэлементно: ссылка заменяется на новый пустой кэш,
+    // старый целиком уходит сборщику мусора. Остальные пространства не затрагиваются.
     public void clearCache(String cacheName) {
-        cache.entrySet().removeIf(entry -> entry.getKey().startsWith(cacheName + "::"));
+        Segment segment = cache.get(cacheName);
+        if (segment != null) {
+            segment.current = new Generation(properties.specFor(cacheName), segment.stats);
+        }
+    }
+
+    public Map<String, Map<String, Object>> getStatistics() {
+        Map<String, Map<String, Object>> statistics = new LinkedHashMap<>();
+        cache.forEach((cacheName, segment) -> {
+            Generation generation = segment.current;
+            generation.entries.cleanUp();
+            CacheStats stats = segment.stats.snapshot();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("size", generation.entries.estimatedSize());
+            values.put("trackedQueries", generation.queryKeys.size());
+            values.put("hitCount", stats.hitCount());
+            values.put("missCount", stats.missCount());
+            values.put("hitRate", stats.hitRate());
+            values.put("evictionCount", stats.evictionCount());
+            values.put("evictionWeight", stats.evictionWeight());
+            statistics.put(cacheName, values);
+        });
+        return statistics;
+    }
+
+    private Segment segment(String cacheName) {
+        Segment segment = cache.get(cacheName);
+        if (segment != null) {
+            return segment;
+        }
+        return cache.computeIfAbsent(cacheName, name -> {
+            ConcurrentStatsCounter stats = new ConcurrentStatsCounter();
+            return new Segment(new Generation(properties.specFor(name), stats), stats);
+        });
+    }
+
+    private record Entry(List<?> value, List<Long> dependsOn) {
+    }
+
+    private static final class Segment {
+        private volatile Generation current;
+        private final ConcurrentStatsCounter stats;
+
+        private Segment(Generation current, ConcurrentStatsCounter stats) {
+            this.current = current;
+            this.stats = stats;
+        }
+    }
+
+    private static final class Generation {
+        private final Cache<String, Entry> entries;
+        private final ConcurrentHashMap<Long, Set<String>> dependents = new ConcurrentHashMap<>();
+        private final Set<String> queryKeys = ConcurrentHashMap.newKeySet();
+
+        private Generation(CacheProperties.Spec spec, ConcurrentStatsCounter stats) {
+            Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats(() -> stats);
+            if (spec.getExpireAfterWrite() != null) {
+                builder.expireAfterWrite(spec.getExpireAfterWrite());
+            }
+            if (spec.getExpireAfterAccess() != null) {
+                builder.expireAfterAccess(spec.getExpireAfterAccess());
+            }
+            if (spec.getMaximumWeight() != null) {
+                builder.maximumWeight(spec.getMaximumWeight())
+                        .weigher((String key, Entry entry) -> Math.max(1, entry.value().size()));
+            }
+            this.entries = builder
+                    .evictionListener((String key, Entry entry, RemovalCause cause) -> {
+                        if (key != null && entry != null) {
+                            unregister(key, entry);
+                        }
+                    })
+                    .build();
+        }
+
+        private void remove(String key) {
+            entries.asMap().computeIfPresent(key, (k, entry) -> {
+                unregister(k, entry);
+                return null;
+            });
+        }
+
+        private void register(String key, Entry entry) {
+            queryKeys.add(key);
+            for (Long id : entry.dependsOn()) {
+                dependents.compute(id, (i, keys) -> {
+                    Set<String> result = keys != null ? keys : ConcurrentHashMap.newKeySet();
+                    result.add(key);
+                    return result;
+                });
+            }
+        }
+
+        private void unregister(String key, Entry entry) {
+            queryKeys.remove(key);
+            for (Long id : entry.dependsOn()) {
+                dependents.computeIfPresent(id, (i, keys) -> {
+                    keys.remove(key);
+                    return keys.isEmpty() ? null : keys;
+                });
+            }
+        }
     }
-}
\ No newline at end of file
+}
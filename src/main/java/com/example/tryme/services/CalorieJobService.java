@@ -0,0 +1,272 @@
+package com.example.tryme.services;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.tryme.config.CaloriesProperties;
+import com.example.tryme.dto.CalorieJobDto;
+import com.example.tryme.dto.CalorieJobProgressDto;
+import com.example.tryme.exception.ResourceNotFoundException;
+import com.example.tryme.exception.TooManyRequestsException;
+
+import jakarta.annotation.PreDestroy;
+
+// Расчет калорий в фоне: запрос сразу получает id задачи, а поток Tomcat не ждет внешних обращений.
+// Очередь ограничена - при переполнении новая задача отклоняется, а не копится в памяти.
+@Service
+public class CalorieJobService {
+    private static final Logger logger = LoggerFactory.getLogger(CalorieJobService.class);
+
+    public enum Status { QUEUED, RUNNING, DONE, FAILED }
+
+    private final CaloriesService caloriesService;
+    private final ThreadPoolExecutor jobExecutor;
+    private final Map<String, CalorieJob> jobs = new ConcurrentHashMap<>();
+    // Завершенные задачи в порядке завершения: устаревшие снимаются с головы без обхода всей таблицы.
+    private final Queue<CalorieJob> finished = new ConcurrentLinkedQueue<>();
+    private final LongAdder rejectedJobs = new LongAdder();
+    private final Duration retention;
+    private final long eventsTimeoutMillis;
+
+    public CalorieJobService(CaloriesService caloriesService, CaloriesProperties caloriesProperties) {
+        this.caloriesService = caloriesService;
+        CaloriesProperties.Jobs config = caloriesProperties.getJobs();
+        this.jobExecutor = new ThreadPoolExecutor(config.getPoolSize(), config.getPoolSize(),
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                new CustomizableThreadFactory("calorie-job-"), new ThreadPoolExecutor.AbortPolicy());
+        this.jobExecutor.allowCoreThreadTimeOut(true);
+        this.retention = config.getRetention();
+        this.eventsTimeoutMillis = config.getEventsTimeout().toMillis();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+
+    public CalorieJobDto submit(Integer productCount, String[] food, Integer[] gram) {
+        evictExpired();
+        CalorieJob job = new CalorieJob(UUID.randomUUID().toString(), productCount);
+        jobs.put(job.id, job);
+        try {
+            jobExecutor.execute(() -> run(job, productCount, food, gram));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            rejectedJobs.increment();
+            throw new TooManyRequestsException("Очередь расчетов калорий заполнена, повторите запрос позже.", e);
+        }
+        return job.toDto();
+    }
+
+    public CalorieJobDto getJob(String id) {
+        return find(id).toDto();
+    }
+
+    // Новый подписчик сначала получает уже разрешенные позиции, затем события по мере расчета.
+    public SseEmitter subscribe(String id) {
+        CalorieJob job = find(id);
+        SseEmitter emitter = new SseEmitter(eventsTimeoutMillis);
+        emitter.onCompletion(() -> job.unsubscribe(emitter));
+        emitter.onTimeout(() -> job.unsubscribe(emitter));
+        emitter.onError(e -> job.unsubscribe(emitter));
+        job.subscribe(emitter);
+        return emitter;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("running", jobExecutor.getActiveCount());
+        statistics.put("queued", jobExecutor.getQueue().size());
+        statistics.put("retained", jobs.size());
+        statistics.put("rejected", rejectedJobs.sum());
+        return statistics;
+    }
+
+    private void run(CalorieJob job, Integer productCount, String[] food, Integer[] gram) {
+        job.start();
+        try {
+            job.complete(caloriesService.calculateCalories(productCount, food, gram, job::itemResolved));
+        } catch (Throwable e) {
+            // Error тоже завершает задачу, иначе она навсегда останется RUNNING, а подписчики - открытыми.
+            logger.warn("Calorie job {} failed: {}", job.id, e.toString());
+            job.fail(e.getMessage() != null ? e.getMessage() : e.toString());
+            if (e instanceof Error error) {
+                throw error;
+            }
+        } finally {
+            finished.add(job);
+        }
+    }
+
+    private CalorieJob find(String id) {
+        evictExpired();
+        CalorieJob job = jobs.get(id);
+        if (job == null) {
+            throw new ResourceNotFoundException("Задача расчета калорий с id: " + id + " не найдена.");
+        }
+        return job;
+    }
+
+    private void evictExpired() {
+        Instant cutoff = Instant.now().minus(retention);
+        CalorieJob oldest;
+        while ((oldest = finished.peek()) != null && oldest.finishedBefore(cutoff)) {
+            if (finished.remove(oldest)) {
+                jobs.remove(oldest.id);
+            }
+        }
+    }
+
+    // Состояние меняется под монитором задачи, а события отправляются уже вне его по снимку подписчиков:
+    // медленный клиент не задерживает расчет и чтение статуса. Подписчик регистрируется только тогда,
+    // когда повтор истории догнал текущее состояние, поэтому он не пропустит событие и не получит его дважды.
+    private static final class CalorieJob {
+        private final String id;
+        private final String[] items;
+        private final Instant submittedAt = Instant.now();
+        private final List<SseEmitter> emitters = new ArrayList<>();
+        private Status status = Status.QUEUED;
+        private int completedItems;
+        private List<String> result;
+        private String error;
+        private Instant finishedAt;
+
+        CalorieJob(String id, int totalItems) {
+            this.id = id;
+            this.items = new String[totalItems];
+        }
+
+        synchronized void start() {
+            status = Status.RUNNING;
+        }
+
+        void itemResolved(String description, int index) {
+            CalorieJobProgressDto progress;
+            List<SseEmitter> subscribers;
+            synchronized (this) {
+                items[index] = description;
+                completedItems++;
+                progress = new CalorieJobProgressDto(index, description, completedItems, items.length);
+                subscribers = List.copyOf(emitters);
+            }
+            for (SseEmitter emitter : subscribers) {
+                if (!send(emitter, SseEmitter.event().name("item").data(progress))) {
+                    unsubscribe(emitter);
+                }
+            }
+        }
+
+        void complete(List<String> calculated) {
+            List<SseEmitter> subscribers;
+            CalorieJobDto terminal;
+            synchronized (this) {
+                result = calculated;
+                subscribers = finish(Status.DONE);
+                terminal = toDto();
+            }
+            subscribers.forEach(emitter -> sendTerminal(emitter, terminal));
+        }
+
+        void fail(String message) {
+            List<SseEmitter> subscribers;
+            CalorieJobDto terminal;
+            synchronized (this) {
+                error = message;
+                subscribers = finish(Status.FAILED);
+                terminal = toDto();
+            }
+            subscribers.forEach(emitter -> sendTerminal(emitter, terminal));
+        }
+
+        void subscribe(SseEmitter emitter) {
+            boolean[] replayed = new boolean[items.length];
+            int replayedCount = 0;
+            while (true) {
+                List<CalorieJobProgressDto> pending = new ArrayList<>();
+                CalorieJobDto terminal = null;
+                synchronized (this) {
+                    for (int i = 0; i < items.length; i++) {
+                        if (items[i] != null && !replayed[i]) {
+                            replayed[i] = true;
+                            replayedCount++;
+                            pending.add(new CalorieJobProgressDto(i, items[i], replayedCount, items.length));
+                        }
+                    }
+                    if (pending.isEmpty()) {
+                        if (finishedAt == null) {
+                            emitters.add(emitter);
+                            return;
+                        }
+                        terminal = toDto();
+                    }
+                }
+                if (terminal != null) {
+                    sendTerminal(emitter, terminal);
+                    return;
+                }
+                for (CalorieJobProgressDto progress : pending) {
+                    if (!send(emitter, SseEmitter.event().name("item").data(progress))) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        synchronized void unsubscribe(SseEmitter emitter) {
+            emitters.remove(emitter);
+        }
+
+        synchronized boolean finishedBefore(Instant cutoff) {
+            return finishedAt != null && finishedAt.isBefore(cutoff);
+        }
+
+        synchronized CalorieJobDto toDto() {
+            return new CalorieJobDto(id, status.name(), completedItems, items.length, result, error, submittedAt, finishedAt);
+        }
+
+        private List<SseEmitter> finish(Status terminal) {
+            status = terminal;
+            finishedAt = Instant.now();
+            List<SseEmitter> subscribers = List.copyOf(emitters);
+            emitters.clear();
+            return subscribers;
+        }
+
+        private static void sendTerminal(SseEmitter emitter, CalorieJobDto terminal) {
+            String name = Status.DONE.name().equals(terminal.status()) ? "done" : "failed";
+            if (send(emitter, SseEmitter.event().name(name).data(terminal))) {
+                emitter.complete();
+            }
+        }
+
+        private static boolean send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                // Клиент отключился или подписка уже закрыта: контейнер сам завершит ответ.
+                return false;
+            }
+        }
+    }
+}
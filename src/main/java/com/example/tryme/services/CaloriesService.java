@@ -1,68 +1,122 @@
 package com.example.tryme.services;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import java.util.function.ObjIntConsumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.util.LinkedMultiValueMap;
-import org.springframework.util.MultiValueMap;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
-import org.springframework.web.client.RestTemplate;
 
 import com.example.tryme.Model.Meal;
 import com.example.tryme.Model.MealProduct;
+import com.example.tryme.Model.NutritionLookup;
 import com.example.tryme.Model.Product;
 import com.example.tryme.Repository.MealProductRepository;
 import com.example.tryme.Repository.MealRepository;
-import com.example.tryme.Repository.ProductRepository;
+import com.example.tryme.Repository.NutritionLookupRepository;
+import com.example.tryme.client.CalorieApiClient;
+import com.example.tryme.client.CalorieApiUnavailableException;
+import com.example.tryme.client.NutritionResponseParser;
+import com.example.tryme.config.CaloriesProperties;
+import com.example.tryme.dto.BatchMealRequest;
+import com.example.tryme.dto.BatchMealResultDto;
 import com.example.tryme.exception.BadRequestException;
 import com.example.tryme.exception.ResourceNotFoundException;
+import com.example.tryme.exception.ServiceUnavailableException;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
 
 @Service
 public class CaloriesService {
     private static final Logger logger = LoggerFactory.getLogger(CaloriesService.class);
-    private final RestTemplate restTemplate = new RestTemplate();
-    private final ProductRepository productRepository;
+    private static final String STALE_NOTICE =
+            "Внимание: сервис калорийности недоступен, значения взяты из локального каталога и могут быть устаревшими.";
+    private final CalorieApiClient calorieApiClient;
     private final MealRepository mealRepository;
     private final MealProductRepository mealProductRepository;
     private final CacheService cacheService;
+    private final ProductService productService;
+    private final MealService mealService;
+    private final MealCompositionWriter mealCompositionWriter;
+    private final ProductNameIndex productNameIndex;
+    private final ThreadPoolExecutor lookupExecutor;
+    private final int lookupParallelism;
+    private final int batchParallelism;
+    private final int batchMaxMeals;
+    private final int batchMaxItems;
+    private final Object productCreationLock = new Object();
+    private final SingleFlight<String, NutritionLookup> inFlightLookups = new SingleFlight<>();
+    private final LongAdder lookupTableHits = new LongAdder();
+    private final LongAdder catalogFallbacks = new LongAdder();
+    private final NutritionLookupRepository nutritionLookupRepository;
+    private final Duration lookupFreshness;
+    private final Duration lookupNegativeFreshness;
 
-    public CaloriesService(ProductRepository productRepository,
-                           MealRepository mealRepository,
+    public CaloriesService(MealRepository mealRepository,
                            MealProductRepository mealProductRepository,
-                           CacheService cacheService) {
-        this.productRepository = productRepository;
+                           CacheService cacheService,
+                           ProductService productService,
+                           MealService mealService,
+                           MealCompositionWriter mealCompositionWriter,
+                           ProductNameIndex productNameIndex,
+                           NutritionLookupRepository nutritionLookupRepository,
+                           CalorieApiClient calorieApiClient,
+                           CaloriesProperties caloriesProperties) {
         this.mealRepository = mealRepository;
         this.mealProductRepository = mealProductRepository;
         this.cacheService = cacheService;
+        this.productService = productService;
+        this.mealService = mealService;
+        this.mealCompositionWriter = mealCompositionWriter;
+        this.productNameIndex = productNameIndex;
+        this.nutritionLookupRepository = nutritionLookupRepository;
+        this.calorieApiClient = calorieApiClient;
+        CaloriesProperties.Lookup lookup = caloriesProperties.getLookup();
+        this.lookupExecutor = new ThreadPoolExecutor(lookup.getPoolSize(), lookup.getPoolSize(),
+                60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(lookup.getQueueCapacity()),
+                new CustomizableThreadFactory("calorie-lookup-"), new ThreadPoolExecutor.CallerRunsPolicy());
+        this.lookupExecutor.allowCoreThreadTimeOut(true);
+        this.lookupParallelism = Math.max(1, lookup.getParallelism());
+        this.batchParallelism = Math.max(1, caloriesProperties.getBatch().getParallelism());
+        this.batchMaxMeals = caloriesProperties.getBatch().getMaxMeals();
+        this.batchMaxItems = caloriesProperties.getBatch().getMaxItems();
+        this.lookupFreshness = lookup.getFreshness();
+        this.lookupNegativeFreshness = lookup.getNegativeFreshness();
     }
 
-    private String sendPostRequest(String query) {
-        String url = "https://calculat.ru/wp-content/themes/EmptyCanvas/db123.php";
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
-        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
-
-        MultiValueMap<String, String> body = new LinkedMultiValueMap<>();
-        body.add("term", query);
+    @PreDestroy
+    public void shutdown() {
+        lookupExecutor.shutdownNow();
+    }
 
-        HttpEntity<MultiValueMap<String, String>> requestEntity = new HttpEntity<>(body, headers);
+    private <T> T sendPostRequest(String query, CalorieApiClient.ResponseReader<T> reader) {
         try {
-            ResponseEntity<String> response = restTemplate.postForEntity(url, requestEntity, String.class);
-            return response.getBody();
+            return calorieApiClient.search(query, reader);
+        } catch (CalorieApiUnavailableException | BadRequestException e) {
+            throw e;
         } catch (HttpClientErrorException | HttpServerErrorException e) {
             logger.error("Error calling external API for query '{}': {} - {}", query, e.getStatusCode(), e.getResponseBodyAsString(), e);
             throw new BadRequestException("Ошибка при получении данных о калорийности для запроса: " + query + ". Статус: " + e.getStatusCode(), e);
@@ -73,6 +127,12 @@ public class CaloriesService {
     }
 
     public List<String> calculateCalories(Integer productCount, String[] food, Integer[] gram) {
+        return calculateCalories(productCount, food, gram, (description, index) -> { });
+    }
+
+    // onItemResolved вызывается из потоков пула по мере разрешения каждой позиции, в произвольном порядке.
+    public List<String> calculateCalories(Integer productCount, String[] food, Integer[] gram,
+                                          ObjIntConsumer<String> onItemResolved) {
         String cacheKey = String.join(":", food) + ":" + String.join(":", Arrays.stream(gram).map(String::valueOf).toArray(String[]::new));
         List<String> cachedResult = cacheService.getFromCache("calories", cacheKey);
         if (cachedResult != null) {
@@ -80,86 +140,353 @@ public class CaloriesService {
         }
 
         List<String> listOfProducts = new ArrayList<>();
-        Integer[] caloriesIn100 = new Integer[productCount];
         Integer totalCalories = 0;
 
-        Meal meal = new Meal("Meal created on " + new Date().toString());
-        mealRepository.save(meal);
-
         for (int i = 0; i < productCount; i++) {
-            
             if (food[i] == null || food[i].trim().isEmpty()) {
                 throw new BadRequestException("Название продукта (food) по индексу " + i + " не может быть пустым.");
             }
             if (gram[i] == null || gram[i] <= 0) {
                 throw new BadRequestException("Вес продукта (gram) для '" + food[i] + "' должен быть указан и быть положительным числом.");
             }
-            String response = getNameFromWebAndSaveProduct(food[i], caloriesIn100, i);
-            String temp = gram[i] + "g." + " " + response;
-            totalCalories += caloriesIn100[i] * gram[i] / 100;
-            listOfProducts.add(temp);
+        }
+        // Сначала все внешние обращения вне транзакции, затем одна короткая запись уже разрешенного состава.
+        ResolvedFood[] resolved = resolveAll(food, productCount, onItemResolved);
+        boolean stale = false;
+        boolean createsProducts = false;
+        List<MealCompositionWriter.Item> items = new ArrayList<>(productCount);
 
-            List<Product> products = productRepository.findByNameContainingIgnoreCase(food[i]);
-            if (products.isEmpty()) {
-                logger.error("Продукт {} не найден после попытки сохранения из веба.", food[i]);
-                throw new ResourceNotFoundException("Продукт " + food[i] + " не удалось обработать и сохранить.");
-            }
-            Product product = products.get(0);
-            MealProduct mealProduct = new MealProduct(gram[i], meal, product);
-            mealProductRepository.save(mealProduct);
+        for (int i = 0; i < productCount; i++) {
+            String temp = gram[i] + "g." + " " + resolved[i].description();
+            totalCalories += resolved[i].caloriesPer100g() * gram[i] / 100;
+            stale |= resolved[i].stale();
+            createsProducts |= resolved[i].product() == null;
+            listOfProducts.add(temp);
+            items.add(new MealCompositionWriter.Item(resolved[i].product(), resolved[i].productName(),
+                    resolved[i].caloriesPer100g(), gram[i]));
         }
 
+        String mealName = "Meal created on " + new Date().toString();
+        MealCompositionWriter.Result written = writeMeals(
+                List.of(new MealCompositionWriter.Composition(mealName, items)), createsProducts).get(0);
         listOfProducts.add("Total calories: " + totalCalories);
-        cacheService.putToCache("calories", cacheKey, listOfProducts);
+        if (stale) {
+            listOfProducts.add(STALE_NOTICE);
+        } else {
+            cacheService.putToCache("calories", cacheKey, listOfProducts);
+        }
         return listOfProducts;
     }
 
-    private String getNameFromWebAndSaveProduct(String query, Integer[] caloriesIn100, Integer numberOfFood) {
-        try {
-            String body = this.sendPostRequest(query);
-            ObjectMapper objectMapper = new ObjectMapper();
-            String responseText = "";
-
-            JsonNode jsonNode = objectMapper.readTree(body);
-            if (jsonNode == null || !jsonNode.has("results") || !jsonNode.get("results").isArray() || jsonNode.get("results").isEmpty()) {
-                logger.warn("Для запроса '{}' не найдено результатов от внешнего API. Ответ: {}", query, body);
-                throw new ResourceNotFoundException("Информация о продукте не найдена для: " + query);
+    // Пакетный расчет: уникальные термины всего пакета разрешаются по одному разу, блюда без ошибок
+    // записываются одной транзакцией. Ошибка позиции не прерывает пакет, а возвращается в ее результате.
+    public List<BatchMealResultDto> calculateBatch(List<BatchMealRequest> meals) {
+        if (meals.size() > batchMaxMeals) {
+            throw new BadRequestException("В пакете не может быть больше " + batchMaxMeals + " блюд.");
+        }
+        if (meals.stream().mapToLong(meal -> itemsOf(meal).size()).sum() > batchMaxItems) {
+            throw new BadRequestException("В пакете не может быть больше " + batchMaxItems + " позиций.");
+        }
+        Map<String, String> queries = new LinkedHashMap<>();
+        for (BatchMealRequest meal : meals) {
+            for (BatchMealRequest.Item item : itemsOf(meal)) {
+                if (validationError(item) == null) {
+                    queries.putIfAbsent(normalizeTerm(item.food()), item.food());
+                }
             }
-            JsonNode match = jsonNode.get("results").get(0);
+        }
+        Map<String, Resolution> resolutions = resolveUnique(queries);
+
+        List<BatchMealResultDto.Item[]> itemResults = new ArrayList<>(meals.size());
+        List<MealCompositionWriter.Composition> compositions = new ArrayList<>();
+        List<Integer> written = new ArrayList<>();
+        boolean createsProducts = false;
+        String defaultName = "Meal created on " + new Date().toString();
+        for (int m = 0; m < meals.size(); m++) {
+            List<BatchMealRequest.Item> items = itemsOf(meals.get(m));
+            BatchMealResultDto.Item[] results = new BatchMealResultDto.Item[items.size()];
+            List<MealCompositionWriter.Item> composition = new ArrayList<>(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                BatchMealRequest.Item item = items.get(i);
+                String error = validationError(item);
+                Resolution resolution = error == null ? resolutions.get(normalizeTerm(item.food())) : null;
+                if (resolution != null && resolution.error() != null) {
+                    error = resolution.error().getMessage();
+                }
+                if (error != null) {
+                    // Позиция может быть null в самом JSON: ошибка возвращается в ее результате, а не как 500.
+                    results[i] = item == null
+                            ? new BatchMealResultDto.Item(null, null, null, null, error)
+                            : new BatchMealResultDto.Item(item.food(), item.gram(), null, null, error);
+                    continue;
+                }
+                ResolvedFood food = resolution.food();
+                results[i] = new BatchMealResultDto.Item(item.food(), item.gram(), item.gram() + "g. " + food.description(),
+                        MealService.caloriesOf(food.caloriesPer100g(), item.gram()), null);
+                composition.add(new MealCompositionWriter.Item(food.product(), food.productName(),
+                        food.caloriesPer100g(), item.gram()));
+            }
+            itemResults.add(results);
+            if (!items.isEmpty() && composition.size() == items.size()) {
+                String name = meals.get(m).name() != null && !meals.get(m).name().isBlank()
+                        ? meals.get(m).name().trim()
+                        : defaultName;
+                compositions.add(new MealCompositionWriter.Composition(name, composition));
+                createsProducts |= composition.stream().anyMatch(item -> item.product() == null);
+                written.add(m);
+            }
+        }
+
+        List<MealCompositionWriter.Result> saved = compositions.isEmpty()
+                ? List.of()
+                : writeMeals(compositions, createsProducts);
+        Map<Integer, MealCompositionWriter.Result> savedByIndex = new HashMap<>();
+        for (int k = 0; k < saved.size(); k++) {
+            savedByIndex.put(written.get(k), saved.get(k));
+        }
+
+        List<BatchMealResultDto> response = new ArrayList<>(meals.size());
+        for (int m = 0; m < meals.size(); m++) {
+            List<BatchMealResultDto.Item> results = List.of(itemResults.get(m));
+            MealCompositionWriter.Result result = savedByIndex.get(m);
+            if (result == null) {
+                String error = results.isEmpty() ? "Блюдо не содержит позиций." : "Блюдо не сохранено: не все позиции разрешены.";
+                String name = meals.get(m) != null ? meals.get(m).name() : null;
+                response.add(new BatchMealResultDto(m, null, name, null, false, results, error));
+                continue;
+            }
+            boolean stale = false;
+            for (BatchMealRequest.Item item : itemsOf(meals.get(m))) {
+                stale |= resolutions.get(normalizeTerm(item.food())).food().stale();
+            }
+            Meal meal = result.meal();
+            response.add(new BatchMealResultDto(m, meal.getId(), meal.getName(), meal.getTotalCalories(), stale,
+                    results, null));
+        }
+        return response;
+    }
+
+    private static List<BatchMealRequest.Item> itemsOf(BatchMealRequest meal) {
+        return meal == null || meal.items() == null ? List.of() : meal.items();
+    }
+
+    private static String validationError(BatchMealRequest.Item item) {
+        if (item == null || item.food() == null || item.food().trim().isEmpty()) {
+            return "Название продукта (food) не может быть пустым.";
+        }
+        if (item.gram() == null || item.gram() <= 0) {
+            return "Вес продукта (gram) для '" + item.food() + "' должен быть указан и быть положительным числом.";
+        }
+        return null;
+    }
+
+    // Запись под productCreationLock, если создаются продукты, затем сброс зависимых кэшей.
+    private List<MealCompositionWriter.Result> writeMeals(List<MealCompositionWriter.Composition> compositions,
+                                                          boolean createsProducts) {
+        List<MealCompositionWriter.Result> written;
+        if (createsProducts) {
+            synchronized (productCreationLock) {
+                written = mealCompositionWriter.writeAll(compositions);
+                // Новые продукты попадают в индекс названий до снятия блокировки - следующий расчет их увидит.
+                for (MealCompositionWriter.Result result : written) {
+                    for (Product product : result.createdProducts()) {
+                        logger.info("Сохранен новый продукт: {} с {} кал/100г", product.getName(), product.getCaloriesPer100g());
+                        productService.onProductSaved(product);
+                    }
+                }
+            }
+        } else {
+            written = mealCompositionWriter.writeAll(compositions);
+        }
+        List<Long> mealIds = new ArrayList<>(written.size());
+        List<Long> mealProductIds = new ArrayList<>();
+        for (MealCompositionWriter.Result result : written) {
+            mealService.onMealContentChanged(result.meal().getId(),
+                    result.products().stream().map(Product::getName).toArray(String[]::new));
+            mealIds.add(result.meal().getId());
+            result.mealProducts().forEach(mealProduct -> mealProductIds.add(mealProduct.getId()));
+        }
+        cacheService.evictIf("meals", KeysetPaging.pagesReaching(mealIds));
+        cacheService.evictIf("mealProducts", KeysetPaging.pagesReaching(mealProductIds));
+        return written;
+    }
 
-            String productName = match.has("text") ? match.get("text").asText() : query;
-            int productCalories = match.has("cal") ? match.get("cal").asInt() : 0;
+    // Внешние запросы по позициям идут параллельно, но не более lookupParallelism на один расчет.
+    private ResolvedFood[] resolveAll(String[] food, int productCount, ObjIntConsumer<String> onItemResolved) {
+        ResolvedFood[] responses = new ResolvedFood[productCount];
+        runIndexed(productCount, lookupParallelism, i -> {
+            responses[i] = resolveFood(food[i]);
+            onItemResolved.accept(responses[i].description(), i);
+        });
+        return responses;
+    }
 
-            if (productName == null || productName.trim().isEmpty()) {
-                throw new BadRequestException("Внешний API вернул пустое имя продукта для запроса: " + query);
+    // Ошибка одного термина запоминается в его результате и не останавливает остальные.
+    private Map<String, Resolution> resolveUnique(Map<String, String> queries) {
+        List<String> terms = new ArrayList<>(queries.keySet());
+        Resolution[] resolved = new Resolution[terms.size()];
+        runIndexed(terms.size(), batchParallelism, i -> {
+            try {
+                resolved[i] = new Resolution(resolveFood(queries.get(terms.get(i))), null);
+            } catch (RuntimeException e) {
+                resolved[i] = new Resolution(null, e);
             }
+        });
+        Map<String, Resolution> resolutions = new HashMap<>();
+        for (int i = 0; i < terms.size(); i++) {
+            resolutions.put(terms.get(i), resolved[i]);
+        }
+        return resolutions;
+    }
 
-            responseText += productName;
-            responseText += " / cal/100g: ";
-            caloriesIn100[numberOfFood] = productCalories;
-            responseText += productCalories;
-
-            List<Product> existingProducts = productRepository.findByNameContainingIgnoreCase(productName);
-            Product product;
-            if (existingProducts.isEmpty()) {
-                product = new Product(productName, productCalories);
-                productRepository.save(product);
-                logger.info("Сохранен новый продукт: {} с {} кал/100г", productName, productCalories);
-                cacheService.clearCache("products");
-            } else {
-                product = existingProducts.get(0);
-                if (!product.getCaloriesPer100g().equals(productCalories)) {
-                    logger.warn("Несоответствие калорий для продукта '{}'. БД: {}, API: {}. Используется значение из API.",
-                                productName, product.getCaloriesPer100g(), productCalories);
+    // parallelism воркеров разбирают индексы по очереди; первое исключение останавливает выдачу новых индексов.
+    private void runIndexed(int count, int parallelism, IntConsumer task) {
+        AtomicInteger nextIndex = new AtomicInteger();
+        int workers = Math.min(parallelism, count);
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[workers];
+        for (int w = 0; w < workers; w++) {
+            tasks[w] = CompletableFuture.runAsync(() -> {
+                int i;
+                while ((i = nextIndex.getAndIncrement()) < count) {
+                    try {
+                        task.accept(i);
+                    } catch (RuntimeException e) {
+                        nextIndex.set(count);
+                        throw e;
+                    }
                 }
+            }, lookupExecutor);
+        }
+        try {
+            CompletableFuture.allOf(tasks).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
             }
-            return responseText;
-        } catch (JsonProcessingException e) {
-            logger.error("Ошибка обработки JSON ответа для запроса '{}': {}", query, e.getMessage(), e);
-            throw new BadRequestException("Ошибка обработки данных о калорийности для: " + query, e);
-        } 
+            throw e;
+        }
     }
 
+    private ResolvedFood resolveFood(String query) {
+        NutritionLookup nutrition;
+        try {
+            nutrition = resolveNutrition(query);
+        } catch (CalorieApiUnavailableException e) {
+            return resolveFromCatalog(query, e);
+        }
+        String productName = nutrition.getProductName();
+        int productCalories = nutrition.getCaloriesPer100g();
+
+        String responseText = "";
+        responseText += productName;
+        responseText += " / cal/100g: ";
+        responseText += productCalories;
+
+        // Продукт только ищется: создание отложено до записи блюда.
+        Product product = findCatalogProduct(productName);
+        if (product != null && !product.getCaloriesPer100g().equals(productCalories)) {
+            logger.warn("Несоответствие калорий для продукта '{}'. БД: {}, API: {}. Используется значение из API.",
+                        productName, product.getCaloriesPer100g(), productCalories);
+        }
+        return new ResolvedFood(responseText, productName, productCalories, product, false);
+    }
+
+    // Внешний сервис недоступен: берем последнее известное значение из таблицы запросов,
+    // а если его нет - наиболее близкий продукт из локального каталога.
+    private ResolvedFood resolveFromCatalog(String query, CalorieApiUnavailableException cause) {
+        String productName;
+        int productCalories;
+        Product product;
+        NutritionLookup stored = nutritionLookupRepository.findById(normalizeTerm(query))
+                .filter(NutritionLookup::isFound)
+                .orElse(null);
+        if (stored != null) {
+            productName = stored.getProductName();
+            productCalories = stored.getCaloriesPer100g();
+            product = findCatalogProduct(productName);
+        } else {
+            String name = query.trim();
+            product = productNameIndex.findByNameContainingIgnoreCase(name).stream()
+                    .min(Comparator.comparing((Product candidate) -> !candidate.getName().equalsIgnoreCase(name))
+                            .thenComparingInt(candidate -> candidate.getName().length()))
+                    .orElseThrow(() -> new ServiceUnavailableException("Сервис калорийности недоступен, а продукт '"
+                            + query + "' не найден в локальном каталоге.", cause));
+            productName = product.getName();
+            productCalories = product.getCaloriesPer100g();
+        }
+        catalogFallbacks.increment();
+        logger.warn("Внешний API недоступен ({}), для запроса '{}' использовано локальное значение: {} / {} кал/100г",
+                cause.getMessage(), query, productName, productCalories);
+        return new ResolvedFood(productName + " / cal/100g: " + productCalories, productName, productCalories, product, true);
+    }
+
+    private Product findCatalogProduct(String productName) {
+        return productNameIndex.findFirstByNameContainingIgnoreCase(productName).orElse(null);
+    }
+
+    // Сначала таблица ранее разрешенных запросов (в том числе отрицательных), и только при ее промахе
+    // или устаревании записи - внешний API.
+    private NutritionLookup resolveNutrition(String query) {
+        String term = normalizeTerm(query);
+        NutritionLookup nutrition = nutritionLookupRepository.findById(term)
+                .filter(this::isFresh)
+                .orElse(null);
+        if (nutrition != null) {
+            lookupTableHits.increment();
+        } else {
+            nutrition = inFlightLookups.execute(term, () -> fetchNutrition(term));
+        }
+        if (!nutrition.isFound()) {
+            throw new ResourceNotFoundException("Информация о продукте не найдена для: " + query);
+        }
+        return nutrition;
+    }
+
+    private boolean isFresh(NutritionLookup nutrition) {
+        Duration maxAge = nutrition.isFound() ? lookupFreshness : lookupNegativeFreshness;
+        return nutrition.getFetchedAt() != null
+                && nutrition.getFetchedAt().plus(maxAge).isAfter(Instant.now());
+    }
+
+    // Ответ разбирается потоком прямо из соединения: от него нужен только первый результат.
+    private NutritionLookup fetchNutrition(String term) {
+        NutritionResponseParser.Match match = this.sendPostRequest(term, body -> {
+            try {
+                return NutritionResponseParser.parseFirst(body);
+            } catch (JsonProcessingException e) {
+                logger.error("Ошибка обработки JSON ответа для запроса '{}': {}", term, e.getMessage(), e);
+                throw new BadRequestException("Ошибка обработки данных о калорийности для: " + term, e);
+            }
+        });
+        NutritionLookup nutrition;
+        if (match == null) {
+            logger.warn("Для запроса '{}' не найдено результатов от внешнего API.", term);
+            nutrition = new NutritionLookup(term, null, null, false, Instant.now());
+        } else {
+            String productName = match.text() != null ? match.text() : term;
+            if (productName.trim().isEmpty()) {
+                throw new BadRequestException("Внешний API вернул пустое имя продукта для запроса: " + term);
+            }
+            nutrition = new NutritionLookup(term, productName, match.calories(), true, Instant.now());
+        }
+        return nutritionLookupRepository.save(nutrition);
+    }
+
+    public Map<String, Object> getExternalApiStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("lookupTableHits", lookupTableHits.sum());
+        statistics.put("catalogFallbacks", catalogFallbacks.sum());
+        statistics.put("remoteCalls", inFlightLookups.getExecutions());
+        statistics.put("deduplicatedCalls", inFlightLookups.getDeduplicated());
+        statistics.put("inFlight", inFlightLookups.getInFlight());
+        return statistics;
+    }
+
+    private static String normalizeTerm(String query) {
+        return query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    @Transactional
     public String addProductToMeal(Long mealId, String productName, Integer grams) {
         if (mealId == null) {
             throw new BadRequestException("Параметр 'mealId' не может быть null.");
@@ -170,26 +497,32 @@ public class CaloriesService {
         if (grams == null || grams <= 0) {
             throw new BadRequestException("Параметр 'grams' должен быть указан и быть положительным числом.");
         }
-        
-        cacheService.clearCache("meals");
-        cacheService.clearCache("mealProducts");
 
         Meal meal = mealRepository.findById(mealId)
                 .orElseThrow(() -> new ResourceNotFoundException("Блюдо с id: " + mealId + " не найдено."));
 
-        List<Product> products = productRepository.findByNameContainingIgnoreCase(productName);
-        if (products.isEmpty()) {
-            throw new ResourceNotFoundException("Продукт с именем: " + productName + " не найден. " +
-                    "Пожалуйста, убедитесь, что он добавлен, возможно, через эндпоинт CalculateCalories.");
-        }
-        Product product = products.get(0);
+        Product product = productNameIndex.findFirstByNameContainingIgnoreCase(productName)
+                .orElseThrow(() -> new ResourceNotFoundException("Продукт с именем: " + productName + " не найден. " +
+                        "Пожалуйста, убедитесь, что он добавлен, возможно, через эндпоинт CalculateCalories."));
 
         MealProduct mealProduct = new MealProduct(grams, meal, product);
         mealProductRepository.save(mealProduct);
-
-        int calories = product.getCaloriesPer100g() * grams / 100;
+        long calories = MealService.caloriesOf(product.getCaloriesPer100g(), grams);
+        mealService.addToCalorieTotals(mealId, calories, 1);
+        Long mealProductId = mealProduct.getId();
+        AfterCommit.run(() -> {
+            cacheService.evictIf("mealProducts", KeysetPaging.pagesReaching(mealProductId));
+            mealService.onMealContentChanged(mealId, product.getName());
+        });
 
         return String.format("Добавлено %dg продукта %s (%d ккал) в блюдо '%s'",
                 grams, product.getName(), calories, meal.getName());
     }
-}
\ No newline at end of file
+
+    // product == null - в каталоге такого продукта еще нет, он будет создан при записи блюда.
+    private record Resolution(ResolvedFood food, RuntimeException error) {
+    }
+
+    private record ResolvedFood(String description, String productName, int caloriesPer100g, Product product, boolean stale) {
+    }
+}
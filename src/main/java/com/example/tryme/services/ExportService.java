@@ -0,0 +1,100 @@
+package com.example.tryme.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.tryme.Model.Meal;
+import com.example.tryme.Model.Product;
+import com.example.tryme.config.ExportProperties;
+import com.example.tryme.dto.MealDto;
+import com.example.tryme.dto.MealProductDto;
+import com.example.tryme.dto.ProductDto;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+// Полная выгрузка таблиц в NDJSON: строки читаются с серверного курсора внутри read-only транзакции,
+// каждая сразу сериализуется и отсоединяется от контекста, так что память не растет с размером таблицы.
+@Service
+public class ExportService {
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter rowWriter;
+    private final int fetchSize;
+
+    public ExportService(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                         ObjectMapper objectMapper, ExportProperties exportProperties) {
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.rowWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.fetchSize = exportProperties.getFetchSize();
+    }
+
+    public StreamingResponseBody exportProducts(Long since) {
+        return out -> export(out, "SELECT p FROM Product p WHERE p.id > :since ORDER BY p.id",
+                Product.class, since, ProductDto::from, true);
+    }
+
+    public StreamingResponseBody exportMeals(Long since) {
+        return out -> export(out, "SELECT m FROM Meal m WHERE m.id > :since ORDER BY m.id",
+                Meal.class, since, MealDto::from, true);
+    }
+
+    // У MealProduct связи с блюдом и продуктом загружаются жадно, поэтому здесь сразу проекция:
+    // сущности не создаются, и на каждую строку не уходят дополнительные запросы.
+    public StreamingResponseBody exportMealProducts(Long since) {
+        return out -> export(out, "SELECT new com.example.tryme.dto.MealProductDto(mp.id, mp.grams, mp.meal.id, mp.product.id, mp.version) "
+                        + "FROM MealProduct mp WHERE mp.id > :since ORDER BY mp.id",
+                MealProductDto.class, since, Function.identity(), false);
+    }
+
+    private <T> void export(OutputStream out, String jpql, Class<T> type, Long since,
+                            Function<T, ?> toRow, boolean managed) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            // Запрос создается внутри транзакции: курсор живет, пока она открыта.
+            readOnlyTransaction.executeWithoutResult(status -> {
+                TypedQuery<T> query = entityManager.createQuery(jpql, type)
+                        .setParameter("since", KeysetPaging.lowerBound(since))
+                        .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                        .setHint(HibernateHints.HINT_READ_ONLY, true);
+                try (Stream<T> rows = query.getResultStream()) {
+                    rows.forEach(row -> {
+                        writeRow(generator, toRow.apply(row));
+                        if (managed) {
+                            entityManager.detach(row);
+                        }
+                    });
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private void writeRow(JsonGenerator generator, Object row) {
+        try {
+            rowWriter.writeValue(generator, row);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
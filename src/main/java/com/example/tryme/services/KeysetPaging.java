@@ -0,0 +1,100 @@
+package com.example.tryme.services;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.springframework.data.domain.Limit;
+
+import com.example.tryme.dto.CursorPage;
+import com.example.tryme.exception.BadRequestException;
+
+// Общие правила постраничной выдачи по курсору (id последней записи предыдущей страницы).
+public final class KeysetPaging {
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+    private static final String PREFIX = "page:";
+
+    private KeysetPaging() {
+    }
+
+    public static boolean isDescending(String sort) {
+        if (sort == null || sort.equalsIgnoreCase("asc")) {
+            return false;
+        }
+        if (sort.equalsIgnoreCase("desc")) {
+            return true;
+        }
+        throw new BadRequestException("Параметр 'sort' должен быть 'asc' или 'desc'.");
+    }
+
+    public static int checkLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new BadRequestException("Параметр 'limit' должен быть от 1 до " + MAX_LIMIT + ".");
+        }
+        return limit;
+    }
+
+    public static String cacheKey(boolean descending, Long after, int limit) {
+        return PREFIX + (descending ? "desc" : "asc") + ":" + (after != null ? after : "") + ":" + limit;
+    }
+
+    // Запрашиваем на одну запись больше: по ней видно, есть ли следующая страница.
+    public static Limit lookahead(int limit) {
+        return Limit.of(limit + 1);
+    }
+
+    public static long lowerBound(Long after) {
+        return after != null ? after : Long.MIN_VALUE;
+    }
+
+    public static long upperBound(Long after) {
+        return after != null ? after : Long.MAX_VALUE;
+    }
+
+    public static <T> CursorPage<T> toPage(List<T> rows, int limit, Function<T, Long> idOf) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new CursorPage<>(items, idOf.apply(items.get(limit - 1)));
+    }
+
+    // Новые записи попадают только в страницы, чей диапазон их перекрывает: по возрастанию -
+    // начатые до наибольшего нового id, по убыванию - после наименьшего. Остальные страницы не меняются.
+    public static Predicate<String> pagesReaching(Collection<Long> ids) {
+        long minId = Long.MAX_VALUE;
+        long maxId = Long.MIN_VALUE;
+        for (Long id : ids) {
+            if (id != null) {
+                minId = Math.min(minId, id);
+                maxId = Math.max(maxId, id);
+            }
+        }
+        if (minId > maxId) {
+            return key -> key.startsWith(PREFIX);
+        }
+        long lowest = minId;
+        long highest = maxId;
+        return key -> {
+            if (!key.startsWith(PREFIX)) {
+                return false;
+            }
+            String[] parts = key.split(":", -1);
+            if (parts[2].isEmpty()) {
+                return true;
+            }
+            long after = Long.parseLong(parts[2]);
+            return parts[1].equals("desc") ? after > lowest : after < highest;
+        };
+    }
+
+    public static Predicate<String> pagesReaching(Long id) {
+        return pagesReaching(Collections.singletonList(id));
+    }
+}
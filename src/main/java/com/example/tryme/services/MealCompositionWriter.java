@@ -0,0 +1,100 @@
+package com.example.tryme.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.tryme.Model.Meal;
+import com.example.tryme.Model.MealProduct;
+import com.example.tryme.Model.Product;
+import com.example.tryme.Repository.MealProductRepository;
+import com.example.tryme.Repository.MealRepository;
+import com.example.tryme.Repository.ProductRepository;
+
+// Запись уже разрешенного состава блюда: блюдо, новые продукты и связи - одна транзакция,
+// без обращений к внешнему API внутри нее.
+@Service
+public class MealCompositionWriter {
+    private final MealRepository mealRepository;
+    private final ProductRepository productRepository;
+    private final MealProductRepository mealProductRepository;
+    private final ProductNameIndex productNameIndex;
+
+    public MealCompositionWriter(MealRepository mealRepository,
+                                 ProductRepository productRepository,
+                                 MealProductRepository mealProductRepository,
+                                 ProductNameIndex productNameIndex) {
+        this.mealRepository = mealRepository;
+        this.productRepository = productRepository;
+        this.mealProductRepository = mealProductRepository;
+        this.productNameIndex = productNameIndex;
+    }
+
+    @Transactional
+    public Result write(String mealName, List<Item> items) {
+        return writeAll(List.of(new Composition(mealName, items))).get(0);
+    }
+
+    // Несколько блюд одной транзакцией: новый продукт, встреченный в разных блюдах, создается один раз.
+    @Transactional
+    public List<Result> writeAll(List<Composition> compositions) {
+        Map<String, Product> productsByName = new HashMap<>();
+        List<Product> created = new ArrayList<>();
+        List<MealProduct> allMealProducts = new ArrayList<>();
+        List<Result> results = new ArrayList<>(compositions.size());
+
+        for (Composition composition : compositions) {
+            List<Item> items = composition.items();
+            Meal meal = new Meal(composition.mealName());
+            long totalCalories = 0;
+            for (Item item : items) {
+                totalCalories += MealService.caloriesOf(item.caloriesPer100g(), item.grams());
+            }
+            meal.setTotalCalories(totalCalories);
+            meal.setItemCount(items.size());
+            meal = mealRepository.save(meal);
+            int createdBefore = created.size();
+            List<Product> products = new ArrayList<>(items.size());
+            List<MealProduct> mealProducts = new ArrayList<>(items.size());
+
+            for (Item item : items) {
+                Product product = item.product();
+                if (product == null) {
+                    // Продукт мог появиться после разрешения - проверяем еще раз, но только для новых.
+                    product = productsByName.computeIfAbsent(item.productName().toLowerCase(Locale.ROOT), key ->
+                            productNameIndex.findFirstByNameContainingIgnoreCase(item.productName())
+                                    .orElseGet(() -> {
+                                        Product fresh = new Product(item.productName(), item.caloriesPer100g());
+                                        created.add(fresh);
+                                        return fresh;
+                                    }));
+                }
+                products.add(product);
+                mealProducts.add(new MealProduct(item.grams(), meal, product));
+            }
+            allMealProducts.addAll(mealProducts);
+            results.add(new Result(meal, products, List.copyOf(created.subList(createdBefore, created.size())),
+                    mealProducts));
+        }
+
+        productRepository.saveAll(created);
+        mealProductRepository.saveAll(allMealProducts);
+        return results;
+    }
+
+    // product == null - продукта нет в каталоге, он будет создан с productName и caloriesPer100g.
+    public record Item(Product product, String productName, int caloriesPer100g, int grams) {
+    }
+
+    public record Composition(String mealName, List<Item> items) {
+    }
+
+    public record Result(Meal meal, List<Product> products, List<Product> createdProducts,
+                         List<MealProduct> mealProducts) {
+    }
+}
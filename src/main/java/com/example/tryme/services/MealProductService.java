@@ -1,77 +1,224 @@
 package com.example.tryme.services;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.tryme.Model.Meal;
 import com.example.tryme.Model.MealProduct;
 import com.example.tryme.Model.Product;
 import com.example.tryme.Repository.MealProductRepository; 
+import com.example.tryme.Repository.MealRepository;
+import com.example.tryme.Repository.ProductRepository;
+import com.example.tryme.dto.CursorPage;
+import com.example.tryme.dto.MealCaloriesDto;
+import com.example.tryme.dto.MealCompositionDto;
+import com.example.tryme.dto.MealCompositionItem;
+import com.example.tryme.dto.MealProductDto;
 import com.example.tryme.exception.ResourceNotFoundException;
 
 @Service
 public class MealProductService {
     private final MealProductRepository mealProductRepository;
     private final CacheService cacheService;
+    private final MealService mealService;
+    private final MealRepository mealRepository;
+    private final ProductRepository productRepository;
 
     @Autowired
-    public MealProductService(MealProductRepository mealProductRepository, CacheService cacheService) {
+    public MealProductService(MealProductRepository mealProductRepository, CacheService cacheService,
+                              MealService mealService, MealRepository mealRepository,
+                              ProductRepository productRepository) {
         this.mealProductRepository = mealProductRepository;
         this.cacheService = cacheService;
+        this.mealService = mealService;
+        this.mealRepository = mealRepository;
+        this.productRepository = productRepository;
     }
 
   
+    @Transactional
     public String createMealProduct(Integer grams, Long mealId, Long productId,
                                     MealService mealService, ProductService productService) {
-        cacheService.clearCache("mealProducts");
-        
-       
         Meal meal = mealService.getMeal(mealId);
         Product product = productService.getProduct(productId);
         
         MealProduct mealProduct = new MealProduct(grams, meal, product);
         mealProductRepository.save(mealProduct);
+        mealService.addToCalorieTotals(mealId, MealService.caloriesOf(product.getCaloriesPer100g(), grams), 1);
+        MealProductDto created = MealProductDto.from(mealProduct);
+        AfterCommit.run(() -> {
+            cacheService.putToCache("mealProducts", "id:" + created.id(), List.of(created));
+            cacheService.evictIf("mealProducts", KeysetPaging.pagesReaching(created.id()));
+            mealService.onMealContentChanged(mealId, product.getName());
+        });
         return "MealProduct created with ID: " + mealProduct.getId();
     }
 
-    public MealProduct getMealProduct(Long id) {
+    public MealProductDto getMealProduct(Long id) {
         String cacheKey = "id:" + id;
-        List<MealProduct> cachedMealProductsList = cacheService.getFromCache("mealProducts", cacheKey);
+        List<MealProductDto> cachedMealProductsList = cacheService.getFromCache("mealProducts", cacheKey);
         if (cachedMealProductsList != null && !cachedMealProductsList.isEmpty()) {
             return cachedMealProductsList.get(0);
         }
-        MealProduct mealProduct = mealProductRepository.findById(id)
+        MealProductDto mealProduct = mealProductRepository.findDtoById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("MealProduct not found with id: " + id));
         cacheService.putToCache("mealProducts", cacheKey, List.of(mealProduct));
         return mealProduct;
     }
 
+    public String cachedETag(Long id) {
+        List<MealProductDto> cachedMealProductsList = cacheService.getFromCache("mealProducts", "id:" + id);
+        return cachedMealProductsList != null && !cachedMealProductsList.isEmpty() ? eTag(cachedMealProductsList.get(0)) : null;
+    }
+
+    public static String eTag(MealProductDto mealProduct) {
+        return ResourceVersions.entityETag(ResourceVersions.MEAL_PRODUCTS, mealProduct.id(), mealProduct.version());
+    }
+
+    @Transactional
     public String updateMealProduct(Long id, Integer grams) {
-        cacheService.clearCache("mealProducts");
         MealProduct mealProduct = mealProductRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("MealProduct not found with id: " + id + " for update."));
+        Integer caloriesPer100g = mealProduct.getProduct().getCaloriesPer100g();
+        long delta = MealService.caloriesOf(caloriesPer100g, grams) - MealService.caloriesOf(caloriesPer100g, mealProduct.getGrams());
         mealProduct.setGrams(grams);
-        mealProductRepository.save(mealProduct);
+        // Версия растет при flush - в кэш должна попасть уже новая.
+        mealProductRepository.saveAndFlush(mealProduct);
+        mealService.addToCalorieTotals(mealProduct.getMeal().getId(), delta, 0);
+        MealProductDto updated = MealProductDto.from(mealProduct);
+        AfterCommit.run(() -> {
+            cacheService.putToCache("mealProducts", "id:" + id, List.of(updated));
+            cacheService.invalidateDependents("mealProducts", id);
+            mealService.onMealContentChanged(updated.mealId());
+        });
         return "MealProduct updated";
     }
 
+    @Transactional
     public String deleteMealProduct(Long id) {
-        cacheService.clearCache("mealProducts");
         MealProduct mealProduct = mealProductRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("MealProduct not found with id: " + id + " for deletion."));
         mealProductRepository.delete(mealProduct);
+        mealService.addToCalorieTotals(mealProduct.getMeal().getId(),
+                -MealService.caloriesOf(mealProduct.getProduct().getCaloriesPer100g(), mealProduct.getGrams()), -1);
+        Long mealId = mealProduct.getMeal().getId();
+        AfterCommit.run(() -> {
+            cacheService.evict("mealProducts", "id:" + id);
+            cacheService.invalidateDependents("mealProducts", id);
+            mealService.onMealContentChanged(mealId);
+        });
         return "MealProduct deleted";
     }
 
-    public List<MealProduct> getAllMealProducts() {
-        List<MealProduct> cachedMealProducts = cacheService.getFromCache("mealProducts", "all");
-        if (cachedMealProducts != null) {
-            return cachedMealProducts;
+    // Состав блюда заменяется целиком. Записи сопоставляются с желаемыми позициями по productId в порядке следования:
+    // совпавшие меняются только при другом весе, лишние удаляются, недостающие добавляются. Все изменения - одна
+    // транзакция с пакетными insert/update/delete, итоги калорий сдвигаются одной разницей, кэши сбрасываются один раз.
+    // Блюдо блокируется до чтения состава: параллельная замена увидит уже новый состав и не вычтет
+    // те же удаленные строки второй раз.
+    @Transactional
+    public MealCompositionDto replaceMealComposition(Long mealId, List<MealCompositionItem> desired) {
+        Meal meal = mealRepository.findByIdForUpdate(mealId)
+                .orElseThrow(() -> new ResourceNotFoundException("Meal not found with id: " + mealId));
+        List<MealProduct> existing = mealProductRepository.findByMealIdWithProduct(mealId);
+
+        Map<Long, Deque<MealProduct>> existingByProduct = new HashMap<>();
+        for (MealProduct mealProduct : existing) {
+            existingByProduct.computeIfAbsent(mealProduct.getProduct().getId(), key -> new ArrayDeque<>()).add(mealProduct);
+        }
+        Set<Long> newProductIds = new HashSet<>();
+        Map<Long, Integer> pending = new HashMap<>();
+        for (MealCompositionItem item : desired) {
+            int matched = pending.merge(item.productId(), 1, Integer::sum);
+            if (matched > existingByProduct.getOrDefault(item.productId(), new ArrayDeque<>()).size()) {
+                newProductIds.add(item.productId());
+            }
+        }
+        Map<Long, Product> newProducts = new HashMap<>();
+        if (!newProductIds.isEmpty()) {
+            productRepository.findAllById(newProductIds).forEach(product -> newProducts.put(product.getId(), product));
+            if (newProducts.size() != newProductIds.size()) {
+                Set<Long> missing = new LinkedHashSet<>(newProductIds);
+                missing.removeAll(newProducts.keySet());
+                throw new ResourceNotFoundException("Product not found with id: " + missing);
+            }
+        }
+
+        List<MealProduct> result = new ArrayList<>(desired.size());
+        List<MealProduct> created = new ArrayList<>();
+        List<MealProduct> updated = new ArrayList<>();
+        Set<String> changedProductNames = new HashSet<>();
+        long caloriesDelta = 0;
+        for (MealCompositionItem item : desired) {
+            MealProduct mealProduct = existingByProduct.getOrDefault(item.productId(), new ArrayDeque<>()).poll();
+            if (mealProduct == null) {
+                Product product = newProducts.get(item.productId());
+                mealProduct = new MealProduct(item.grams(), meal, product);
+                created.add(mealProduct);
+                changedProductNames.add(product.getName());
+                caloriesDelta += MealService.caloriesOf(product.getCaloriesPer100g(), item.grams());
+            } else if (!mealProduct.getGrams().equals(item.grams())) {
+                Integer caloriesPer100g = mealProduct.getProduct().getCaloriesPer100g();
+                caloriesDelta += MealService.caloriesOf(caloriesPer100g, item.grams())
+                        - MealService.caloriesOf(caloriesPer100g, mealProduct.getGrams());
+                mealProduct.setGrams(item.grams());
+                updated.add(mealProduct);
+            }
+            result.add(mealProduct);
+        }
+        List<MealProduct> deleted = new ArrayList<>();
+        existingByProduct.values().forEach(deleted::addAll);
+        for (MealProduct mealProduct : deleted) {
+            changedProductNames.add(mealProduct.getProduct().getName());
+            caloriesDelta -= MealService.caloriesOf(mealProduct.getProduct().getCaloriesPer100g(), mealProduct.getGrams());
+        }
+
+        // Измененные записи уже управляемые: flush отправит их update и delete пакетами вместе с insert,
+        // и в ответ попадут уже новые версии. Delete, как и update, проверяет @Version строки.
+        mealProductRepository.saveAll(created);
+        mealProductRepository.deleteAll(deleted);
+        mealProductRepository.flush();
+
+        if (!created.isEmpty() || !updated.isEmpty() || !deleted.isEmpty()) {
+            // Вызывается и при нулевой разнице: вместе с итогами растет версия блюда.
+            mealService.addToCalorieTotals(mealId, caloriesDelta, created.size() - deleted.size());
+            List<Long> staleIds = new ArrayList<>();
+            updated.forEach(mealProduct -> staleIds.add(mealProduct.getId()));
+            deleted.forEach(mealProduct -> staleIds.add(mealProduct.getId()));
+            List<Long> changedIds = new ArrayList<>(staleIds);
+            created.forEach(mealProduct -> changedIds.add(mealProduct.getId()));
+            String[] productNames = changedProductNames.toArray(String[]::new);
+            AfterCommit.run(() -> {
+                staleIds.forEach(id -> cacheService.evict("mealProducts", "id:" + id));
+                cacheService.evictIf("mealProducts", KeysetPaging.pagesReaching(changedIds));
+                mealService.onMealContentChanged(mealId, productNames);
+            });
+        }
+
+        MealCaloriesDto calories = mealService.getMealCalories(mealId);
+        return new MealCompositionDto(mealId, created.size(), updated.size(), deleted.size(),
+                calories.totalCalories(), calories.itemCount(), result.stream().map(MealProductDto::from).toList());
+    }
+
+    public CursorPage<MealProductDto> getMealProductsPage(Long after, int limit, boolean descending) {
+        String cacheKey = KeysetPaging.cacheKey(descending, after, limit);
+        List<MealProductDto> rows = cacheService.getFromCache("mealProducts", cacheKey);
+        if (rows == null) {
+            rows = descending
+                    ? mealProductRepository.findPageBefore(KeysetPaging.upperBound(after), KeysetPaging.lookahead(limit))
+                    : mealProductRepository.findPageAfter(KeysetPaging.lowerBound(after), KeysetPaging.lookahead(limit));
+            cacheService.putToCache("mealProducts", cacheKey, rows, rows.stream().map(MealProductDto::id).toList());
         }
-        List<MealProduct> mealProducts = mealProductRepository.findAll();
-        cacheService.putToCache("mealProducts", "all", mealProducts);
-        return mealProducts;
+        return KeysetPaging.toPage(rows, limit, MealProductDto::id);
     }
 }
\ No newline at end of file
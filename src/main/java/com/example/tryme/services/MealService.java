@@ -1,12 +1,19 @@
 package com.example.tryme.services;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.tryme.Model.Meal;
 import com.example.tryme.Repository.MealRepository;
+import com.example.tryme.dto.CursorPage;
+import com.example.tryme.dto.MealCaloriesDto;
+import com.example.tryme.dto.MealDetailDto;
+import com.example.tryme.dto.MealDto;
+import com.example.tryme.dto.MealItemDto;
 import com.example.tryme.exception.ResourceNotFoundException;
 
 @Service
@@ -19,30 +26,32 @@ public class MealService {
         this.cacheService = cacheService;
     }
 
-    public List<Meal> findMealsByProductName(String productName) {
+    public List<MealDto> findMealsByProductName(String productName) {
         String cacheKey = "productName:" + productName;
-        List<Meal> cachedMeals = cacheService.getFromCache("meals", cacheKey);
+        List<MealDto> cachedMeals = cacheService.getFromCache("meals", cacheKey);
         if (cachedMeals != null) {
             return cachedMeals;
         }
-        List<Meal> meals = mealRepository.findMealsByProductName(productName);
-        cacheService.putToCache("meals", cacheKey, meals);
+        List<MealDto> meals = mealRepository.findMealsByProductName(productName);
+        cacheService.putToCache("meals", cacheKey, meals, meals.stream().map(MealDto::id).toList());
         return meals;
     }
 
     public String createMeal(String mealName) {
-        cacheService.clearCache("meals"); 
         Meal meal = new Meal(mealName); 
         mealRepository.save(meal);
+        cacheService.putToCache("meals", "id:" + meal.getId(), List.of(meal));
+        cacheService.evictIf("meals", KeysetPaging.pagesReaching(meal.getId()));
         return "Meal '" + mealName + "' created with ID: " + meal.getId();
     }
 
     public List<String> bulkCreateMeals(List<String> mealNames) {
-        cacheService.clearCache("meals");
         List<Meal> meals = mealNames.stream()
                 .map(Meal::new)
                 .collect(Collectors.toList());
         mealRepository.saveAll(meals);
+        meals.forEach(meal -> cacheService.putToCache("meals", "id:" + meal.getId(), List.of(meal)));
+        cacheService.evictIf("meals", KeysetPaging.pagesReaching(meals.stream().map(Meal::getId).toList()));
         return meals.stream()
                 .map(meal -> "Meal '" + meal.getName() + "' created with ID: " + meal.getId())
                 .collect(Collectors.toList());
@@ -60,30 +69,146 @@ public class MealService {
         return meal;
     }
 
+    public MealDetailDto getMealDetail(Long id) {
+        String cacheKey = "detail:" + id;
+        List<MealDetailDto> cachedDetail = cacheService.getFromCache("meals", cacheKey);
+        if (cachedDetail != null && !cachedDetail.isEmpty()) {
+            return cachedDetail.get(0);
+        }
+        List<Object[]> rows = mealRepository.findDetailRows(id);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Meal not found with id: " + id);
+        }
+        List<MealItemDto> items = new ArrayList<>();
+        for (Object[] row : rows) {
+            if (row[2] != null) {
+                items.add(new MealItemDto((Long) row[2], (Long) row[3], (String) row[4], (Integer) row[5], (Integer) row[6]));
+            }
+        }
+        MealDetailDto detail = new MealDetailDto((Long) rows.get(0)[0], (String) rows.get(0)[1], (Long) rows.get(0)[7], items);
+        cacheService.putToCache("meals", cacheKey, List.of(detail), List.of(id));
+        return detail;
+    }
+
+    // ETag карточки из кэша: условный GET отвечает 304, не обращаясь к БД. null - карточки в кэше нет.
+    public String cachedDetailETag(Long id) {
+        List<MealDetailDto> cachedDetail = cacheService.getFromCache("meals", "detail:" + id);
+        return cachedDetail != null && !cachedDetail.isEmpty() ? eTag(cachedDetail.get(0)) : null;
+    }
+
+    public static String eTag(MealDetailDto detail) {
+        return ResourceVersions.entityETag(ResourceVersions.MEALS, detail.id(), detail.version());
+    }
+
+    public MealCaloriesDto getMealCalories(Long id) {
+        MealCaloriesDto calories = mealRepository.findCaloriesById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Meal not found with id: " + id));
+        if (calories.totalCalories() == null || calories.itemCount() == null) {
+            mealRepository.recomputeTotals(id);
+            calories = mealRepository.findCaloriesById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Meal not found with id: " + id));
+        }
+        return calories;
+    }
+
+    // Калорийность позиции считается так же, как в расчете калорий: целочисленно, по каждой позиции отдельно.
+    public static long caloriesOf(Integer caloriesPer100g, Integer grams) {
+        return caloriesPer100g * grams / 100;
+    }
+
+    public void addToCalorieTotals(Long mealId, long calories, int items) {
+        mealRepository.addToTotals(mealId, calories, items);
+    }
+
+    // Продукт входит в состав блюд: обновляем и сбрасываем из кэша только эти блюда, остальные карточки остаются.
+    public void onProductCaloriesChanged(Long productId) {
+        List<Long> mealIds = mealRepository.findMealIdsByProduct(productId);
+        if (!mealIds.isEmpty()) {
+            mealRepository.recomputeTotalsForMeals(mealIds);
+            evictMeals(mealIds);
+        }
+    }
+
+    public void onProductRenamed(Long productId) {
+        List<Long> mealIds = mealRepository.findMealIdsByProduct(productId);
+        if (!mealIds.isEmpty()) {
+            mealRepository.incrementVersionForMeals(mealIds);
+            evictMeals(mealIds);
+        }
+    }
+
+    private void evictMeals(List<Long> mealIds) {
+        AfterCommit.run(() -> {
+            for (Long mealId : mealIds) {
+                cacheService.evict("meals", "id:" + mealId);
+                cacheService.evict("meals", "detail:" + mealId);
+            }
+        });
+    }
+
+    public int rebuildCalorieTotals() {
+        return mealRepository.recomputeAllTotals();
+    }
+
+    // Чтение и изменение в одной транзакции: версию блюда меняют и атомарные UPDATE итогов,
+    // поэтому сохранение ранее прочитанной копии упало бы на @Version.
+    @Transactional
     public String updateMeal(Long id, String newName) {
-        cacheService.clearCache("meals"); 
         Meal meal = mealRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Meal not found with id: " + id + " for update."));
         meal.setName(newName);
-        mealRepository.save(meal);
+        Meal saved = mealRepository.save(meal);
+        mealRepository.flush();
+        AfterCommit.run(() -> {
+            cacheService.invalidateDependents("meals", id);
+            cacheService.putToCache("meals", "id:" + id, List.of(saved));
+        });
         return "Meal updated to '" + newName + "'";
     }
 
     public String deleteMeal(Long id) {
-        cacheService.clearCache("meals"); 
         Meal meal = mealRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Meal not found with id: " + id + " for deletion."));
         mealRepository.delete(meal);
+        cacheService.evict("meals", "id:" + id);
+        cacheService.invalidateDependents("meals", id);
+        if (meal.getProducts() != null) {
+            meal.getProducts().forEach(mealProduct -> {
+                cacheService.evict("mealProducts", "id:" + mealProduct.getId());
+                cacheService.invalidateDependents("mealProducts", mealProduct.getId());
+            });
+        }
         return "Meal deleted";
     }
 
-    public List<Meal> getAllMeals() {
-        List<Meal> cachedMeals = cacheService.getFromCache("meals", "all");
-        if (cachedMeals != null) {
-            return cachedMeals;
+    // Состав блюда изменился: сбрасываем само блюдо, запросы, где оно уже есть,
+    // и поиски по названию продукта, в которые блюдо могло попасть.
+    public void onMealContentChanged(Long mealId, String... productNames) {
+        cacheService.evict("meals", "id:" + mealId);
+        cacheService.invalidateDependents("meals", mealId);
+        cacheService.evictIf("meals", key -> {
+            if (!key.startsWith("productName:")) {
+                return false;
+            }
+            String term = key.substring(12);
+            for (String productName : productNames) {
+                if (productName != null && productName.contains(term)) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    public CursorPage<MealDto> getMealsPage(Long after, int limit, boolean descending) {
+        String cacheKey = KeysetPaging.cacheKey(descending, after, limit);
+        List<MealDto> rows = cacheService.getFromCache("meals", cacheKey);
+        if (rows == null) {
+            rows = descending
+                    ? mealRepository.findPageBefore(KeysetPaging.upperBound(after), KeysetPaging.lookahead(limit))
+                    : mealRepository.findPageAfter(KeysetPaging.lowerBound(after), KeysetPaging.lookahead(limit));
+            cacheService.putToCache("meals", cacheKey, rows, rows.stream().map(MealDto::id).toList());
         }
-        List<Meal> meals = mealRepository.findAll();
-        cacheService.putToCache("meals", "all", meals);
-        return meals;
+        return KeysetPaging.toPage(rows, limit, MealDto::id);
     }
 }
\ No newline at end of file
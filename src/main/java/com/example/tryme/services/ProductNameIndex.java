@@ -0,0 +1,203 @@
+package com.example.tryme.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.example.tryme.Model.Product;
+import com.example.tryme.Repository.ProductRepository;
+
+// Триграммный индекс названий продуктов в памяти: поиск подстроки без LIKE '%x%' по всей таблице.
+// Результат совпадает с ProductRepository.findByNameContainingIgnoreCase, упорядочен по id.
+@Component
+public class ProductNameIndex {
+    private static final Logger logger = LoggerFactory.getLogger(ProductNameIndex.class);
+    private static final int GRAM = 3;
+
+    private final ProductRepository productRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, String> names = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private volatile boolean loaded;
+
+    public ProductNameIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        ensureLoaded();
+    }
+
+    public List<Product> findByNameContainingIgnoreCase(String term) {
+        List<Long> ids = search(term);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Product> products = new ArrayList<>(productRepository.findAllById(ids));
+        products.sort(Comparator.comparing(Product::getId));
+        return products;
+    }
+
+    public Optional<Product> findFirstByNameContainingIgnoreCase(String term) {
+        for (Long id : search(term)) {
+            Optional<Product> product = productRepository.findById(id);
+            if (product.isPresent()) {
+                return product;
+            }
+        }
+        return Optional.empty();
+    }
+
+    public List<Long> search(String term) {
+        ensureLoaded();
+        String needle = normalize(term);
+        lock.readLock().lock();
+        try {
+            Collection<Long> candidates = needle.length() < GRAM ? names.keySet() : candidates(needle);
+            List<Long> ids = new ArrayList<>();
+            for (Long id : candidates) {
+                if (names.get(id).contains(needle)) {
+                    ids.add(id);
+                }
+            }
+            ids.sort(null);
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Вызывается после фиксации записи. Пока индекс не построен, изменения не нужны:
+    // построение прочитает их из БД.
+    public void put(Product product) {
+        if (product.getId() == null || product.getName() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                removeEntry(product.getId());
+                addEntry(product.getId(), product.getName());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                removeEntry(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return names.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                long start = System.currentTimeMillis();
+                for (Object[] row : productRepository.findAllIdsAndNames()) {
+                    if (row[1] != null) {
+                        addEntry((Long) row[0], (String) row[1]);
+                    }
+                }
+                loaded = true;
+                logger.info("Product name index built: {} products, {} trigrams in {} ms",
+                        names.size(), postings.size(), System.currentTimeMillis() - start);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Пересечение списков по триграммам подстроки, начиная с самого короткого.
+    private Collection<Long> candidates(String needle) {
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : trigrams(needle)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids == null) {
+                return List.of();
+            }
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        List<Long> result = new ArrayList<>();
+        for (Long id : lists.get(0)) {
+            boolean inAll = true;
+            for (int i = 1; i < lists.size() && inAll; i++) {
+                inAll = lists.get(i).contains(id);
+            }
+            if (inAll) {
+                result.add(id);
+            }
+        }
+        return result;
+    }
+
+    private void addEntry(Long id, String name) {
+        String normalized = normalize(name);
+        names.put(id, normalized);
+        for (String gram : trigrams(normalized)) {
+            postings.computeIfAbsent(gram, g -> new HashSet<>()).add(id);
+        }
+    }
+
+    private void removeEntry(Long id) {
+        String previous = names.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String gram : trigrams(previous)) {
+            Set<Long> ids = postings.get(gram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static Set<String> trigrams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -1,68 +1,124 @@
     package com.example.tryme.services;
 
     import java.util.List;
+    import java.util.Locale;
+    import java.util.function.Predicate;
 
     import org.springframework.stereotype.Service;
+    import org.springframework.transaction.annotation.Transactional;
 
     import com.example.tryme.Model.Product;
     import com.example.tryme.Repository.ProductRepository;
+    import com.example.tryme.dto.CursorPage;
+    import com.example.tryme.dto.ProductDto;
     import com.example.tryme.exception.ResourceNotFoundException;
 
     @Service
     public class ProductService {
         private final ProductRepository productRepository;
         private final CacheService cacheService;
+        private final ProductNameIndex productNameIndex;
+        private final MealService mealService;
 
-        public ProductService(ProductRepository productRepository, CacheService cacheService) {
+        public ProductService(ProductRepository productRepository, CacheService cacheService,
+                              ProductNameIndex productNameIndex, MealService mealService) {
             this.productRepository = productRepository;
             this.cacheService = cacheService;
+            this.productNameIndex = productNameIndex;
+            this.mealService = mealService;
         }
 
         public String createProduct(String name, Integer caloriesPer100g) {
-            cacheService.clearCache("products");
             Product product = new Product(name, caloriesPer100g);
             productRepository.save(product);
+            onProductSaved(product);
             return "Product created with ID: " + product.getId();
         }
 
         public Product getProduct(Long id) {
+            return productRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+        }
+
+        public ProductDto getProductDto(Long id) {
             String cacheKey = "id:" + id;
-            List<Product> cachedProductsList = cacheService.getFromCache("products", cacheKey);
+            List<ProductDto> cachedProductsList = cacheService.getFromCache("products", cacheKey);
             if (cachedProductsList != null && !cachedProductsList.isEmpty()) {
                 return cachedProductsList.get(0);
             }
-            Product product = productRepository.findById(id)
+            ProductDto product = productRepository.findDtoById(id)
                     .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
             cacheService.putToCache("products", cacheKey, List.of(product));
             return product;
         }
 
+        // ETag по записи в кэше: условный GET отвечает 304, не обращаясь к БД. null - записи в кэше нет.
+        public String cachedETag(Long id) {
+            List<ProductDto> cachedProductsList = cacheService.getFromCache("products", "id:" + id);
+            return cachedProductsList != null && !cachedProductsList.isEmpty() ? eTag(cachedProductsList.get(0)) : null;
+        }
+
+        public static String eTag(ProductDto product) {
+            return ResourceVersions.entityETag(ResourceVersions.PRODUCTS, product.id(), product.version());
+        }
+
+        // Продукт и итоги его блюд меняются одной транзакцией, кэши и индекс названий - после ее фиксации.
+        @Transactional
         public String updateProduct(Long id, String name, Integer caloriesPer100g) {
-            cacheService.clearCache("products");
             Product product = productRepository.findById(id)
                     .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id + " for update."));
+            String oldName = product.getName();
+            Integer oldCalories = product.getCaloriesPer100g();
             product.setName(name);
             product.setCaloriesPer100g(caloriesPer100g);
-            productRepository.save(product);
+            Product saved = productRepository.saveAndFlush(product);
+            if (!caloriesPer100g.equals(oldCalories)) {
+                mealService.onProductCaloriesChanged(id);
+            } else if (!name.equals(oldName)) {
+                mealService.onProductRenamed(id);
+            }
+            AfterCommit.run(() -> {
+                cacheService.invalidateDependents("products", id);
+                onProductSaved(saved);
+                if (oldName != null && !oldName.equals(name)) {
+                    cacheService.evictIf("meals", key -> key.startsWith("productName:")
+                            && (oldName.contains(key.substring(12)) || name.contains(key.substring(12))));
+                }
+            });
             return "Product updated";
         }
 
         public String deleteProduct(Long id) {
-            cacheService.clearCache("products");
             Product product = productRepository.findById(id)
                     .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id + " for deletion."));
             productRepository.delete(product);
+            productNameIndex.remove(id);
+            cacheService.evict("products", "id:" + id);
+            cacheService.invalidateDependents("products", id);
             return "Product deleted";
         }
 
-        public List<Product> getAllProducts() {
-            List<Product> cachedProducts = cacheService.getFromCache("products", "all");
-            if (cachedProducts != null) {
-                return cachedProducts;
+        // Кэшируем актуальную запись по id и сбрасываем только те запросы, в выдачу которых продукт теперь попадает.
+        public void onProductSaved(Product product) {
+            productNameIndex.put(product);
+            cacheService.putToCache("products", "id:" + product.getId(), List.of(ProductDto.from(product)));
+            String lowerName = product.getName().toLowerCase(Locale.ROOT);
+            Predicate<String> pages = KeysetPaging.pagesReaching(product.getId());
+            cacheService.evictIf("products", key -> key.startsWith("name:")
+                    ? lowerName.contains(key.substring(5).toLowerCase(Locale.ROOT))
+                    : pages.test(key));
+        }
+
+        public CursorPage<ProductDto> getProductsPage(Long after, int limit, boolean descending) {
+            String cacheKey = KeysetPaging.cacheKey(descending, after, limit);
+            List<ProductDto> rows = cacheService.getFromCache("products", cacheKey);
+            if (rows == null) {
+                rows = descending
+                        ? productRepository.findPageBefore(KeysetPaging.upperBound(after), KeysetPaging.lookahead(limit))
+                        : productRepository.findPageAfter(KeysetPaging.lowerBound(after), KeysetPaging.lookahead(limit));
+                cacheService.putToCache("products", cacheKey, rows, rows.stream().map(ProductDto::id).toList());
             }
-            List<Product> products = productRepository.findAll();
-            cacheService.putToCache("products", "all", products);
-            return products;
+            return KeysetPaging.toPage(rows, limit, ProductDto::id);
         }
 
         public List<Product> findByNameContainingIgnoreCase(String name) {
@@ -71,8 +127,8 @@
             if (cachedProducts != null) {
                 return cachedProducts;
             }
-            List<Product> products = productRepository.findByNameContainingIgnoreCase(name);
-            cacheService.putToCache("products", cacheKey, products);
+            List<Product> products = productNameIndex.findByNameContainingIgnoreCase(name);
+            cacheService.putToCache("products", cacheKey, products, products.stream().map(Product::getId).toList());
             return products;
         }
     }
\ No newline at end of file
@@ -1,42 +1,167 @@
 package com.example.tryme.services;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.springframework.stereotype.Component;
 
+// Счетчики запросов по эндпоинтам (метод + шаблон пути) и кодам ответа.
+// LongAdder вместо AtomicInteger: нет конкуренции за одну ячейку между потоками и нет переполнения на 2^31.
+// Ошибки везде делятся одинаково: 4xx - ошибки клиента, 5xx - ошибки сервера, failedRequests - их сумма.
 @Component
 public class RequestCounter {
-    private final AtomicInteger totalRequests = new AtomicInteger(0);
-    private final AtomicInteger successfulRequests = new AtomicInteger(0);
-    private final AtomicInteger failedRequests = new AtomicInteger(0);
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
 
-    public void incrementTotal() {
-        totalRequests.incrementAndGet();
+    private final LongAdder totalRequests = new LongAdder();
+    private final LongAdder successfulRequests = new LongAdder();
+    private final LongAdder failedRequests = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final ConcurrentMap<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+    public void record(String method, String uri, int status, long durationNanos) {
+        totalRequests.increment();
+        if (status >= 500) {
+            failedRequests.increment();
+            serverErrors.increment();
+        } else if (status >= 400) {
+            failedRequests.increment();
+            clientErrors.increment();
+        } else {
+            successfulRequests.increment();
+        }
+        endpoints.computeIfAbsent(method + " " + uri, key -> new EndpointMetrics(method, uri))
+                .record(status, durationNanos);
+    }
+
+    public long getTotalRequests() {
+        return totalRequests.sum();
+    }
+
+    public long getSuccessfulRequests() {
+        return successfulRequests.sum();
     }
 
-    public void incrementSuccessful() {
-        successfulRequests.incrementAndGet();
+    public long getFailedRequests() {
+        return failedRequests.sum();
     }
 
-    public void incrementFailed() {
-        failedRequests.incrementAndGet();
+    public long getClientErrors() {
+        return clientErrors.sum();
     }
 
-    public int getTotalRequests() {
-        return totalRequests.get();
+    public long getServerErrors() {
+        return serverErrors.sum();
     }
 
-    public int getSuccessfulRequests() {
-        return successfulRequests.get();
+    public Map<String, Map<String, Object>> getEndpointStatistics() {
+        Map<String, Map<String, Object>> statistics = new TreeMap<>();
+        endpoints.forEach((key, metrics) -> statistics.put(key, metrics.toMap()));
+        return statistics;
     }
 
-    public int getFailedRequests() {
-        return failedRequests.get();
+    // Текстовый формат Prometheus 0.0.4: счетчики по кодам ответа и summary длительности по эндпоинтам.
+    public String toPrometheus() {
+        Map<String, EndpointMetrics> sorted = new TreeMap<>(endpoints);
+        StringBuilder out = new StringBuilder();
+        out.append("# HELP http_server_requests_total Number of HTTP requests by endpoint and status.\n");
+        out.append("# TYPE http_server_requests_total counter\n");
+        sorted.values().forEach(metrics -> new TreeMap<>(metrics.statuses).forEach((status, count) ->
+                out.append("http_server_requests_total{").append(metrics.labels)
+                        .append(",status=\"").append(status).append("\"} ").append(count.sum()).append('\n')));
+        out.append("# HELP http_server_request_errors_total Number of HTTP requests answered with 4xx or 5xx.\n");
+        out.append("# TYPE http_server_request_errors_total counter\n");
+        sorted.values().forEach(metrics -> {
+            out.append("http_server_request_errors_total{").append(metrics.labels).append(",class=\"4xx\"} ")
+                    .append(metrics.clientErrors.sum()).append('\n');
+            out.append("http_server_request_errors_total{").append(metrics.labels).append(",class=\"5xx\"} ")
+                    .append(metrics.serverErrors.sum()).append('\n');
+        });
+        out.append("# HELP http_server_request_duration_seconds HTTP request duration.\n");
+        out.append("# TYPE http_server_request_duration_seconds summary\n");
+        sorted.values().forEach(metrics -> {
+            LatencyHistogram latency = metrics.latency;
+            for (double quantile : QUANTILES) {
+                out.append("http_server_request_duration_seconds{").append(metrics.labels)
+                        .append(",quantile=\"").append(quantile).append("\"} ")
+                        .append(seconds(latency.percentileMicros(quantile))).append('\n');
+            }
+            out.append("http_server_request_duration_seconds_sum{").append(metrics.labels).append("} ")
+                    .append(seconds(latency.getSumMicros())).append('\n');
+            out.append("http_server_request_duration_seconds_count{").append(metrics.labels).append("} ")
+                    .append(latency.getCount()).append('\n');
+        });
+        out.append("# HELP http_server_request_duration_seconds_max Longest HTTP request duration.\n");
+        out.append("# TYPE http_server_request_duration_seconds_max gauge\n");
+        sorted.values().forEach(metrics ->
+                out.append("http_server_request_duration_seconds_max{").append(metrics.labels).append("} ")
+                        .append(seconds(metrics.latency.getMaxMicros())).append('\n'));
+        return out.toString();
     }
 
     public void reset() {
-        totalRequests.set(0);
-        successfulRequests.set(0);
-        failedRequests.set(0);
+        totalRequests.reset();
+        successfulRequests.reset();
+        failedRequests.reset();
+        clientErrors.reset();
+        serverErrors.reset();
+        endpoints.clear();
+    }
+
+    private static double seconds(long micros) {
+        return micros / 1_000_000.0;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1_000.0;
+    }
+
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static final class EndpointMetrics {
+        private final String labels;
+        private final ConcurrentMap<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        EndpointMetrics(String method, String uri) {
+            this.labels = "method=\"" + escapeLabel(method) + "\",uri=\"" + escapeLabel(uri) + "\"";
+        }
+
+        void record(int status, long durationNanos) {
+            statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+            if (status >= 500) {
+                serverErrors.increment();
+            } else if (status >= 400) {
+                clientErrors.increment();
+            }
+            latency.record(durationNanos);
+        }
+
+        Map<String, Object> toMap() {
+            long count = latency.getCount();
+            Map<String, Object> statusCounts = new TreeMap<>();
+            statuses.forEach((status, adder) -> statusCounts.put(String.valueOf(status), adder.sum()));
+            Map<String, Object> latencyMs = new LinkedHashMap<>();
+            latencyMs.put("p50", millis(latency.percentileMicros(0.5)));
+            latencyMs.put("p90", millis(latency.percentileMicros(0.9)));
+            latencyMs.put("p99", millis(latency.percentileMicros(0.99)));
+            latencyMs.put("max", millis(latency.getMaxMicros()));
+            latencyMs.put("mean", count == 0 ? 0.0 : millis(latency.getSumMicros() / count));
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("requests", count);
+            map.put("clientErrors", clientErrors.sum());
+            map.put("serverErrors", serverErrors.sum());
+            map.put("statuses", statusCounts);
+            map.put("latencyMs", latencyMs);
+            return map;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,32 @@
+package com.example.tryme.services;
+
+import com.example.tryme.Model.Meal;
+import com.example.tryme.Model.MealProduct;
+import com.example.tryme.Model.Product;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+// Любая запись сущности через EntityManager двигает версию ее таблицы. Массовые UPDATE/DELETE
+// мимо контекста сюда не попадают - для них ResourceVersions.changed вызывается явно.
+public class ResourceVersionListener {
+    private final ResourceVersions resourceVersions;
+
+    public ResourceVersionListener(ResourceVersions resourceVersions) {
+        this.resourceVersions = resourceVersions;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (entity instanceof Product) {
+            resourceVersions.changed(ResourceVersions.PRODUCTS);
+        } else if (entity instanceof Meal) {
+            resourceVersions.changed(ResourceVersions.MEALS);
+        } else if (entity instanceof MealProduct) {
+            resourceVersions.changed(ResourceVersions.MEAL_PRODUCTS);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.tryme.services;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Версии для ETag. У записи это ее @Version из БД, у списков - счетчик изменений таблицы в памяти,
+// поэтому в ETag списка входит метка запуска: после рестарта прежние ETag не совпадут.
+@Component
+public class ResourceVersions {
+    public static final String PRODUCTS = "products";
+    public static final String MEALS = "meals";
+    public static final String MEAL_PRODUCTS = "mealProducts";
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final ConcurrentMap<String, AtomicLong> tables = new ConcurrentHashMap<>();
+
+    public static String entityETag(String table, Long id, Long version) {
+        return "\"" + table + "-" + id + "-v" + version + "\"";
+    }
+
+    public String tableETag(String table) {
+        return "\"" + table + "-" + epoch + "-" + counter(table).get() + "\"";
+    }
+
+    // Внутри транзакции версия двигается после ее завершения, один раз на таблицу: иначе параллельное
+    // чтение успело бы получить новый ETag вместе с еще не зафиксированными, старыми данными.
+    @SuppressWarnings("unchecked")
+    public void changed(String table) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            counter(table).incrementAndGet();
+            return;
+        }
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<String> changedTables = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, changedTables);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ResourceVersions.this);
+                    changedTables.forEach(changedTable -> counter(changedTable).incrementAndGet());
+                }
+            });
+            pending = changedTables;
+        }
+        pending.add(table);
+    }
+
+    private AtomicLong counter(String table) {
+        return tables.computeIfAbsent(table, key -> new AtomicLong());
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.tryme.Controller;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.tryme.Model.NutritionLookup;
+import com.example.tryme.Repository.MealProductRepository;
+import com.example.tryme.Repository.NutritionLookupRepository;
+import com.example.tryme.Repository.ProductRepository;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BatchCaloriesTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private NutritionLookupRepository nutritionLookupRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MealProductRepository mealProductRepository;
+
+    @Test
+    void batch_resolvesSharedFoodsOnceAndReportsErrorsPerItem() throws Exception {
+        // Свежие записи таблицы запросов: внешний API не вызывается.
+        nutritionLookupRepository.saveAll(List.of(
+                new NutritionLookup("batch apple", "Batch Apple", 52, true, Instant.now()),
+                new NutritionLookup("batch pear", "Batch Pear", 57, true, Instant.now()),
+                new NutritionLookup("batch unknown", null, null, false, Instant.now())));
+
+        String body = """
+                [
+                  {"name": "Fruit bowl", "items": [{"food": "Batch Apple", "gram": 100}, {"food": "batch  pear", "gram": 200}]},
+                  {"items": [{"food": "batch apple", "gram": 50}, {"food": "batch unknown", "gram": 10}]},
+                  {"items": [{"food": " ", "gram": 10}]},
+                  {"name": "Pear snack", "items": [{"food": "Batch Pear", "gram": 100}]}
+                ]
+                """;
+
+        mockMvc.perform(post("/products/CalculateCalories/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[0].index").value(0))
+                .andExpect(jsonPath("$[0].name").value("Fruit bowl"))
+                .andExpect(jsonPath("$[0].totalCalories").value(52 + 114))
+                .andExpect(jsonPath("$[0].items[1].description").value("200g. Batch Pear / cal/100g: 57"))
+                .andExpect(jsonPath("$[0].items[1].calories").value(114))
+                .andExpect(jsonPath("$[0].error").value(nullValue()))
+                .andExpect(jsonPath("$[1].mealId").value(nullValue()))
+                .andExpect(jsonPath("$[1].items[0].error").value(nullValue()))
+                .andExpect(jsonPath("$[1].items[1].error").value("Информация о продукте не найдена для: batch unknown"))
+                .andExpect(jsonPath("$[1].error").value("Блюдо не сохранено: не все позиции разрешены."))
+                .andExpect(jsonPath("$[2].mealId").value(nullValue()))
+                .andExpect(jsonPath("$[2].items[0].error").value("Название продукта (food) не может быть пустым."))
+                .andExpect(jsonPath("$[3].name").value("Pear snack"))
+                .andExpect(jsonPath("$[3].totalCalories").value(57));
+
+        // Продукт, встреченный в двух блюдах пакета, создан один раз.
+        assertEquals(1, productRepository.findAll().stream().filter(p -> p.getName().equals("Batch Pear")).count());
+        assertEquals(3, mealProductRepository.findAll().stream()
+                .filter(mp -> mp.getProduct().getName().startsWith("Batch ")).count());
+    }
+
+    @Test
+    void batch_emptyOrOversized_isRejected() throws Exception {
+        mockMvc.perform(post("/products/CalculateCalories/batch").contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isBadRequest());
+
+        String oversized = "[" + "{\"items\":[{\"food\":\"x\",\"gram\":1}]},".repeat(1000) + "{\"items\":[]}]";
+        mockMvc.perform(post("/products/CalculateCalories/batch").contentType(MediaType.APPLICATION_JSON).content(oversized))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void batch_reportsNullItemsAsErrors() throws Exception {
+        nutritionLookupRepository.save(new NutritionLookup("batch plum", "Batch Plum", 46, true, Instant.now()));
+
+        String body = """
+                [
+                  {"name": "Plum plate", "items": [null, {"food": "batch plum", "gram": 100}]}
+                ]
+                """;
+
+        mockMvc.perform(post("/products/CalculateCalories/batch").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].mealId").value(nullValue()))
+                .andExpect(jsonPath("$[0].items[0].food").value(nullValue()))
+                .andExpect(jsonPath("$[0].items[0].error").value("Название продукта (food) не может быть пустым."))
+                .andExpect(jsonPath("$[0].items[1].error").value(nullValue()))
+                .andExpect(jsonPath("$[0].error").value("Блюдо не сохранено: не все позиции разрешены."));
+    }
+
+    @Test
+    void batch_reportsNullMealAsError() throws Exception {
+        mockMvc.perform(post("/products/CalculateCalories/batch").contentType(MediaType.APPLICATION_JSON).content("[null]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].mealId").value(nullValue()))
+                .andExpect(jsonPath("$[0].name").value(nullValue()))
+                .andExpect(jsonPath("$[0].error").value("Блюдо не содержит позиций."));
+    }
+}
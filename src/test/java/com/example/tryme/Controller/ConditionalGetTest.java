@@ -0,0 +1,120 @@
+package com.example.tryme.Controller;
+
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.tryme.Model.Meal;
+import com.example.tryme.Model.Product;
+import com.example.tryme.Repository.MealRepository;
+import com.example.tryme.Repository.ProductRepository;
+import com.example.tryme.services.MealProductService;
+import com.example.tryme.services.MealService;
+import com.example.tryme.services.ProductService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalGetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MealRepository mealRepository;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private MealService mealService;
+
+    @Autowired
+    private MealProductService mealProductService;
+
+    @Test
+    void product_notModifiedUntilVersionChanges() throws Exception {
+        Product product = productRepository.save(new Product("Etag apple", 52));
+
+        String etag = eTagOf("/products/" + product.getId());
+        assertEquals("\"products-" + product.getId() + "-v0\"", etag);
+        mockMvc.perform(get("/products/{id}", product.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/products/{id}", product.getId()).header(HttpHeaders.IF_NONE_MATCH, "W/" + etag))
+                .andExpect(status().isNotModified());
+
+        productService.updateProduct(product.getId(), "Etag green apple", 55);
+
+        mockMvc.perform(get("/products/{id}", product.getId()).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"products-" + product.getId() + "-v1\""));
+    }
+
+    @Test
+    void mealDetail_versionFollowsCompositionAndProductNames() throws Exception {
+        Product rice = productRepository.save(new Product("Etag rice", 130));
+        Meal meal = mealRepository.save(new Meal("Etag bowl"));
+        String path = "/meals/" + meal.getId();
+
+        String empty = eTagOf(path);
+        mealProductService.createMealProduct(100, meal.getId(), rice.getId(), mealService, productService);
+        String withRice = eTagOf(path);
+        assertNotModified(path, withRice);
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, empty)).andExpect(status().isOk());
+
+        // Калорийность прежняя, но название продукта в карточке блюда сменилось.
+        productService.updateProduct(rice.getId(), "Etag brown rice", 130);
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, withRice))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(withRice)));
+    }
+
+    @Test
+    void lists_notModifiedUntilTableChanges() throws Exception {
+        String products = eTagOf("/products/?limit=5");
+        String meals = eTagOf("/meals/?limit=5");
+        assertNotModified("/products/?limit=5", products);
+        assertNotModified("/meals/?limit=5", meals);
+
+        productService.createProduct("Etag pear", 57);
+
+        mockMvc.perform(get("/products/?limit=5").header(HttpHeaders.IF_NONE_MATCH, products))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(products)));
+        assertNotModified("/meals/?limit=5", meals);
+        mockMvc.perform(get("/products/?limit=0").header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products/?sort=sideways").header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/meals/?sort=sideways").header(HttpHeaders.IF_NONE_MATCH, meals))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/mealProducts/?sort=sideways").header(HttpHeaders.IF_NONE_MATCH, "*"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String eTagOf(String path) throws Exception {
+        return mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private void assertNotModified(String path, String etag) throws Exception {
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.tryme.Controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.tryme.Model.Meal;
+import com.example.tryme.Model.Product;
+import com.example.tryme.Repository.MealProductRepository;
+import com.example.tryme.Repository.MealRepository;
+import com.example.tryme.Repository.ProductRepository;
+import com.example.tryme.dto.MealCaloriesDto;
+import com.example.tryme.services.MealProductService;
+import com.example.tryme.services.MealService;
+import com.example.tryme.services.ProductService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class MealCaloriesTotalsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MealRepository mealRepository;
+
+    @Autowired
+    private MealProductRepository mealProductRepository;
+
+    @Autowired
+    private MealService mealService;
+
+    @Autowired
+    private MealProductService mealProductService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void productUpdateEvictsOnlyDetailsOfMealsContainingIt() {
+        Product bean = productRepository.save(new Product("Detail bean", 340));
+        Product kale = productRepository.save(new Product("Detail kale", 49));
+        Meal withBean = mealRepository.save(new Meal("Detail bean bowl"));
+        Meal withKale = mealRepository.save(new Meal("Detail kale bowl"));
+        mealProductService.createMealProduct(100, withBean.getId(), bean.getId(), mealService, productService);
+        mealProductService.createMealProduct(100, withKale.getId(), kale.getId(), mealService, productService);
+        mealService.getMealDetail(withBean.getId());
+        mealService.getMealDetail(withKale.getId());
+
+        productService.updateProduct(bean.getId(), "Detail bean", 350);
+
+        assertNull(mealService.cachedDetailETag(withBean.getId()));
+        assertNotNull(mealService.cachedDetailETag(withKale.getId()));
+        assertEquals(350, mealService.getMealDetail(withBean.getId()).items().get(0).caloriesPer100g());
+    }
+
+    @Test
+    void totalsFollowEveryChangeOfMealComposition() throws Exception {
+        Product rice = productRepository.save(new Product("Totals rice", 130));
+        Product oil = productRepository.save(new Product("Totals oil", 884));
+        Meal meal = mealRepository.save(new Meal("Totals bowl"));
+
+        mealProductService.createMealProduct(200, meal.getId(), rice.getId(), mealService, productService);
+        mealProductService.createMealProduct(10, meal.getId(), oil.getId(), mealService, productService);
+        assertTotals(meal.getId(), 260 + 88, 2);
+
+        Long oilItem = mealProductRepository.findByMealId(meal.getId()).stream()
+                .filter(mp -> mp.getProduct().getId().equals(oil.getId()))
+                .findFirst().orElseThrow().getId();
+        mealProductService.updateMealProduct(oilItem, 20);
+        assertTotals(meal.getId(), 260 + 176, 2);
+
+        productService.updateProduct(rice.getId(), "Totals rice", 100);
+        assertTotals(meal.getId(), 200 + 176, 2);
+
+        // Переименование блюда не должно затирать итоги значениями из сущности.
+        mealService.updateMeal(meal.getId(), "Totals bowl 2");
+        assertTotals(meal.getId(), 200 + 176, 2);
+
+        mealProductService.deleteMealProduct(oilItem);
+        assertTotals(meal.getId(), 200, 1);
+
+        mockMvc.perform(get("/meals/{id}/calories", meal.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalCalories").value(200))
+                .andExpect(jsonPath("$.itemCount").value(1));
+    }
+
+    @Test
+    void rebuildRestoresTotalsFromComposition() {
+        Product bread = productRepository.save(new Product("Totals bread", 250));
+        Meal meal = mealRepository.save(new Meal("Totals toast"));
+        mealProductService.createMealProduct(40, meal.getId(), bread.getId(), mealService, productService);
+        mealRepository.addToTotals(meal.getId(), 1_000, 5);
+
+        mealService.rebuildCalorieTotals();
+
+        assertTotals(meal.getId(), 100, 1);
+    }
+
+    @Test
+    void rolledBackChangeDoesNotReachCache() {
+        Product milk = productRepository.save(new Product("Totals milk", 60));
+        Meal meal = mealRepository.save(new Meal("Totals latte"));
+        mealProductService.createMealProduct(200, meal.getId(), milk.getId(), mealService, productService);
+        Long item = mealProductRepository.findByMealId(meal.getId()).get(0).getId();
+        assertEquals(200, mealProductService.getMealProduct(item).grams());
+
+        transactionTemplate.executeWithoutResult(status -> {
+            mealProductService.updateMealProduct(item, 500);
+            status.setRollbackOnly();
+        });
+
+        assertEquals(200, mealProductService.getMealProduct(item).grams());
+        assertTotals(meal.getId(), 120, 1);
+    }
+
+    private void assertTotals(Long mealId, long totalCalories, int itemCount) {
+        MealCaloriesDto calories = mealService.getMealCalories(mealId);
+        assertEquals(totalCalories, calories.totalCalories());
+        assertEquals(itemCount, calories.itemCount());
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.tryme.Controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.tryme.Model.Meal;
+import com.example.tryme.Model.MealProduct;
+import com.example.tryme.Model.Product;
+import com.example.tryme.Repository.MealProductRepository;
+import com.example.tryme.Repository.MealRepository;
+import com.example.tryme.Repository.ProductRepository;
+import com.example.tryme.dto.MealCaloriesDto;
+import com.example.tryme.dto.MealCompositionDto;
+import com.example.tryme.dto.MealCompositionItem;
+import com.example.tryme.services.MealProductService;
+import com.example.tryme.services.MealService;
+import com.example.tryme.services.ProductService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class MealCompositionReplaceTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MealRepository mealRepository;
+
+    @Autowired
+    private MealProductRepository mealProductRepository;
+
+    @Autowired
+    private MealService mealService;
+
+    @Autowired
+    private MealProductService mealProductService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void replace_appliesOnlyTheDifference() throws Exception {
+        Product rice = productRepository.save(new Product("Replace rice", 130));
+        Product oil = productRepository.save(new Product("Replace oil", 900));
+        Product egg = productRepository.save(new Product("Replace egg", 150));
+        Product salt = productRepository.save(new Product("Replace salt", 0));
+        Meal meal = mealRepository.save(new Meal("Replace bowl"));
+        mealProductService.createMealProduct(200, meal.getId(), rice.getId(), mealService, productService);
+        mealProductService.createMealProduct(10, meal.getId(), oil.getId(), mealService, productService);
+        mealProductService.createMealProduct(5, meal.getId(), salt.getId(), mealService, productService);
+        Long riceItem = itemOf(meal.getId(), rice.getId());
+        Long oilItem = itemOf(meal.getId(), oil.getId());
+        // Прогрев кэша, чтобы проверить сброс устаревших записей.
+        mockMvc.perform(get("/mealProducts/{id}", oilItem)).andExpect(status().isOk());
+
+        String body = "[{\"productId\": %d, \"grams\": 200}, {\"productId\": %d, \"grams\": 20}, {\"productId\": %d, \"grams\": 100}]"
+                .formatted(rice.getId(), oil.getId(), egg.getId());
+
+        mockMvc.perform(put("/mealProducts/meal/{mealId}", meal.getId()).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.deleted").value(1))
+                .andExpect(jsonPath("$.totalCalories").value(260 + 180 + 150))
+                .andExpect(jsonPath("$.itemCount").value(3))
+                .andExpect(jsonPath("$.items[0].id").value(riceItem))
+                .andExpect(jsonPath("$.items[1].id").value(oilItem))
+                .andExpect(jsonPath("$.items[2].productId").value(egg.getId()));
+
+        mockMvc.perform(get("/mealProducts/{id}", oilItem))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.grams").value(20));
+        List<MealProduct> stored = mealProductRepository.findByMealId(meal.getId());
+        assertEquals(3, stored.size());
+        assertEquals(590, mealService.getMealCalories(meal.getId()).totalCalories());
+    }
+
+    @Test
+    void replace_unknownProductChangesNothing() throws Exception {
+        Product bread = productRepository.save(new Product("Replace bread", 250));
+        Meal meal = mealRepository.save(new Meal("Replace toast"));
+        mealProductService.createMealProduct(40, meal.getId(), bread.getId(), mealService, productService);
+
+        mockMvc.perform(put("/mealProducts/meal/{mealId}", meal.getId()).contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"productId\": 999999, \"grams\": 50}]"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(put("/mealProducts/meal/{mealId}", meal.getId()).contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"productId\": %d, \"grams\": 0}]".formatted(bread.getId())))
+                .andExpect(status().isBadRequest());
+
+        assertEquals(1, mealProductRepository.findByMealId(meal.getId()).size());
+        assertEquals(100, mealService.getMealCalories(meal.getId()).totalCalories());
+    }
+
+    @Test
+    void concurrentReplaces_removeSharedRowOnlyOnce() throws Exception {
+        Product rice = productRepository.save(new Product("Replace race rice", 130));
+        Product oil = productRepository.save(new Product("Replace race oil", 900));
+        Meal meal = mealRepository.save(new Meal("Replace race bowl"));
+        mealProductService.createMealProduct(100, meal.getId(), rice.getId(), mealService, productService);
+        mealProductService.createMealProduct(10, meal.getId(), oil.getId(), mealService, productService);
+        List<MealCompositionItem> riceOnly = List.of(new MealCompositionItem(rice.getId(), 100));
+
+        int threads = 4;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<MealCompositionDto>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < threads; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return mealProductService.replaceMealComposition(meal.getId(), riceOnly);
+                }));
+            }
+            start.countDown();
+            int deleted = 0;
+            for (Future<MealCompositionDto> result : results) {
+                deleted += result.get(30, TimeUnit.SECONDS).deleted();
+            }
+            assertEquals(1, deleted);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        MealCaloriesDto calories = mealService.getMealCalories(meal.getId());
+        assertEquals(130, calories.totalCalories());
+        assertEquals(1, calories.itemCount());
+        assertEquals(1, mealProductRepository.findByMealId(meal.getId()).size());
+    }
+
+    private Long itemOf(Long mealId, Long productId) {
+        return mealProductRepository.findByMealId(mealId).stream()
+                .filter(mp -> mp.getProduct().getId().equals(productId))
+                .findFirst().orElseThrow().getId();
+    }
+}
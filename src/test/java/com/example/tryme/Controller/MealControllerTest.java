@@ -18,7 +18,15 @@ import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.example.tryme.Controller.advice.GlobalExceptionHandler;
+import com.example.tryme.Model.Meal;
 import com.example.tryme.exception.BadRequestException;
 import com.example.tryme.services.MealService;
 
@@ -94,4 +102,17 @@ class MealControllerTest {
         assertEquals(mealNames, captor.getValue());
         verify(mealService, times(1)).bulkCreateMeals(mealNames);
     }
-}
\ No newline at end of file
+
+    @Test
+    void updateMeal_concurrentModification_returnsConflict() throws Exception {
+        when(mealService.updateMeal(1L, "Soup"))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Meal.class, 1L));
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(mealController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        mockMvc.perform(put("/meals/update/{id}", 1L).param("newName", "Soup"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409));
+    }
+}
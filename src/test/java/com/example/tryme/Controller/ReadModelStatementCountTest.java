@@ -0,0 +1,111 @@
+package com.example.tryme.Controller;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.example.tryme.Model.Meal;
+import com.example.tryme.Model.MealProduct;
+import com.example.tryme.Model.Product;
+import com.example.tryme.Repository.MealProductRepository;
+import com.example.tryme.Repository.MealRepository;
+import com.example.tryme.Repository.ProductRepository;
+import com.example.tryme.services.CacheService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReadModelStatementCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MealRepository mealRepository;
+
+    @Autowired
+    private MealProductRepository mealProductRepository;
+
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Product apple;
+    private Meal lunch;
+    private MealProduct lunchApple;
+
+    @BeforeAll
+    void setUp() {
+        apple = new Product("Apple", 52);
+        Product pear = new Product("Pear", 57);
+        Product bread = new Product("Bread", 265);
+        productRepository.saveAll(List.of(apple, pear, bread));
+        lunch = new Meal("Lunch");
+        Meal dinner = new Meal("Dinner");
+        mealRepository.saveAll(List.of(lunch, dinner));
+        lunchApple = new MealProduct(150, lunch, apple);
+        mealProductRepository.saveAll(List.of(lunchApple, new MealProduct(100, lunch, pear),
+                new MealProduct(80, dinner, bread), new MealProduct(120, dinner, apple)));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void productEndpoints_runOneStatement() throws Exception {
+        assertEquals(1, statementsFor("/products/"));
+        assertEquals(1, statementsFor("/products/" + apple.getId()));
+    }
+
+    @Test
+    void mealEndpoints_runOneStatement() throws Exception {
+        assertEquals(1, statementsFor("/meals/"));
+        assertEquals(1, statementsFor("/meals/" + lunch.getId()));
+        assertEquals(1, statementsFor("/meals/by-product?productName=Apple"));
+    }
+
+    @Test
+    void mealProductEndpoints_runOneStatement() throws Exception {
+        assertEquals(1, statementsFor("/mealProducts/"));
+        assertEquals(1, statementsFor("/mealProducts/" + lunchApple.getId()));
+    }
+
+    @Test
+    void mealDetail_containsWholeComposition() throws Exception {
+        mockMvc.perform(get("/meals/" + lunch.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Lunch"))
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].productName").value("Apple"));
+    }
+
+    // Кэш сбрасывается, чтобы считать запросы именно промаха; сериализация ответа тоже входит в замер.
+    private long statementsFor(String url) throws Exception {
+        for (String cacheName : List.of("products", "meals", "mealProducts")) {
+            cacheService.clearCache(cacheName);
+        }
+        statistics.clear();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        return statistics.getPrepareStatementCount();
+    }
+}
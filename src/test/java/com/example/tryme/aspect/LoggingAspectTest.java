@@ -0,0 +1,113 @@
+package com.example.tryme.aspect;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.Test;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+
+import com.example.tryme.config.LoggingAspectProperties;
+
+class LoggingAspectTest {
+
+    @Test
+    void render_summarizesContainersAndTrimsLongText() {
+        assertEquals("[null, 5, ArrayList(size=3), Integer[2], HashMap(size=0)]",
+                LoggingAspect.renderArgs(new Object[] {null, 5, new ArrayList<>(List.of(1, 2, 3)),
+                        new Integer[] {1, 2}, new HashMap<>(Map.of())}, 50));
+        assertEquals("abcdefg... (trimmed)", LoggingAspect.render("abcdefghijklmnop", 10));
+    }
+
+    @Test
+    void asyncTraceLog_dropsWhenQueueIsFull() throws InterruptedException {
+        LoggingAspectProperties properties = new LoggingAspectProperties();
+        properties.setQueueCapacity(0);
+        AsyncTraceLog traceLog = new AsyncTraceLog(properties);
+        Logger logger = LoggerFactory.getLogger(LoggingAspectTest.class);
+
+        assertFalse(traceLog.info(logger, "dropped {}", 1));
+        assertEquals(1, traceLog.getDropped());
+        assertEquals(1L, traceLog.getStatistics().get("dropped"));
+        traceLog.close();
+    }
+
+    @Test
+    void syncTraceLog_writesDirectlyWithoutQueue() throws InterruptedException {
+        LoggingAspectProperties properties = new LoggingAspectProperties();
+        properties.setAsync(false);
+        properties.setQueueCapacity(0);
+        AsyncTraceLog traceLog = new AsyncTraceLog(properties);
+        Logger logger = LoggerFactory.getLogger(LoggingAspectTest.class);
+
+        assertTrue(traceLog.info(logger, "direct {}", 1));
+        assertEquals(false, traceLog.getStatistics().get("async"));
+        assertEquals(0L, traceLog.getStatistics().get("dropped"));
+        traceLog.close();
+    }
+
+    @Test
+    void asyncTraceLog_acceptsUpToCapacity() throws InterruptedException {
+        LoggingAspectProperties properties = new LoggingAspectProperties();
+        properties.setQueueCapacity(16);
+        AsyncTraceLog traceLog = new AsyncTraceLog(properties);
+        Logger logger = LoggerFactory.getLogger(LoggingAspectTest.class);
+
+        for (int i = 0; i < 16; i++) {
+            assertTrue(traceLog.info(logger, "entry {}", i));
+        }
+        traceLog.close();
+        assertEquals(0, traceLog.getDropped());
+    }
+
+    @Test
+    void sharedException_loggedOncePerOutermostCall() throws Throwable {
+        LoggingAspectProperties properties = new LoggingAspectProperties();
+        properties.setMode(LoggingAspectProperties.Mode.OFF);
+        properties.setAsync(false);
+        LoggingAspect aspect = new LoggingAspect(properties, new AsyncTraceLog(properties));
+        IllegalStateException shared = new IllegalStateException("shared");
+
+        ProceedingJoinPoint inner = joinPoint("inner");
+        when(inner.proceed()).thenThrow(shared);
+        ProceedingJoinPoint outer = joinPoint("outer");
+        when(outer.proceed()).thenAnswer(invocation -> aspect.traceService(inner));
+
+        ch.qos.logback.classic.Logger aspectLogger =
+                (ch.qos.logback.classic.Logger) LoggerFactory.getLogger(LoggingAspect.class);
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        aspectLogger.addAppender(appender);
+        try {
+            assertThrows(IllegalStateException.class, () -> aspect.traceController(outer));
+            assertThrows(IllegalStateException.class, () -> aspect.traceController(outer));
+        } finally {
+            aspectLogger.detachAppender(appender);
+        }
+
+        assertEquals(2, appender.list.stream().filter(event -> event.getLevel() == Level.ERROR).count());
+    }
+
+    private static ProceedingJoinPoint joinPoint(String name) {
+        Signature signature = mock(Signature.class);
+        when(signature.getDeclaringTypeName()).thenReturn("Test");
+        when(signature.getName()).thenReturn(name);
+        ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+        when(joinPoint.getSignature()).thenReturn(signature);
+        return joinPoint;
+    }
+}
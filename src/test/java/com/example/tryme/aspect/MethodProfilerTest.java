@@ -0,0 +1,78 @@
+package com.example.tryme.aspect;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.tryme.config.ProfilerProperties;
+import com.example.tryme.dto.MethodProfileDto;
+
+class MethodProfilerTest {
+
+    private MethodProfiler profiler;
+    private Method outer;
+    private Method inner;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        ProfilerProperties properties = new ProfilerProperties();
+        properties.setSlowCallThreshold(Duration.ofMillis(5));
+        properties.setSlowCallsKept(1);
+        profiler = new MethodProfiler(properties);
+        outer = String.class.getMethod("trim");
+        inner = String.class.getMethod("length");
+    }
+
+    @Test
+    void exit_subtractsNestedCallsFromSelfTime() {
+        MethodProfiler.CallStack outerCall = profiler.enter();
+        MethodProfiler.CallStack innerCall = profiler.enter();
+        profiler.exit(innerCall, String.class, inner, 3_000_000, new Object[0], false);
+        profiler.exit(outerCall, String.class, outer, 4_000_000, new Object[0], false);
+
+        MethodProfileDto outerProfile = find("String.trim");
+        assertEquals(4.0, outerProfile.totalMs());
+        assertEquals(1.0, outerProfile.selfMs());
+        assertEquals(3.0, find("String.length").selfMs());
+    }
+
+    @Test
+    void exit_keepsLatestSlowCallsWithArguments() {
+        record(outer, 6_000_000, "first");
+        record(outer, 1_000_000, "fast");
+        record(outer, 7_000_000, "second");
+
+        List<MethodProfileDto.SlowCall> slowCalls = find("String.trim").slowCalls();
+        assertEquals(1, slowCalls.size());
+        assertEquals("[second]", slowCalls.get(0).args());
+    }
+
+    @Test
+    void top_sortsByRequestedColumnAndReset_clearsCounters() {
+        record(outer, 2_000_000, "a");
+        record(inner, 500_000, "b");
+        record(inner, 700_000, "c");
+
+        assertEquals("String.trim", profiler.top(1, "total").get(0).method());
+        assertEquals("String.length", profiler.top(1, "calls").get(0).method());
+        assertEquals(2, profiler.top(10, "self").size());
+
+        profiler.reset();
+        assertTrue(profiler.top(10, "total").isEmpty());
+    }
+
+    private void record(Method method, long nanos, String arg) {
+        profiler.exit(profiler.enter(), String.class, method, nanos, new Object[] {arg}, false);
+    }
+
+    private MethodProfileDto find(String name) {
+        return profiler.top(100, "total").stream()
+                .filter(profile -> profile.method().equals(name))
+                .findFirst().orElseThrow();
+    }
+}
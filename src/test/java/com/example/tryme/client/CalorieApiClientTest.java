@@ -0,0 +1,113 @@
+package com.example.tryme.client;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import com.example.tryme.config.CaloriesProperties;
+
+class CalorieApiClientTest {
+
+    private StubCalorieServer server;
+    private CaloriesProperties.Api api;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = new StubCalorieServer(0, Duration.ZERO).start();
+        api = new CaloriesProperties.Api();
+        api.setUrl(server.getUrl());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    @Test
+    void pooledClient_reusesConnectionsAcrossRequests() throws Exception {
+        try (PooledCalorieApiClient client = new PooledCalorieApiClient(api)) {
+            for (int i = 0; i < 20; i++) {
+                assertEquals(StubCalorieServer.responseFor("chicken breast"), client.search("chicken breast"));
+            }
+
+            assertEquals(20L, client.getStatistics().get("requests"));
+            assertEquals(0, client.getStatistics().get("leased"));
+            assertEquals(1, client.getStatistics().get("available"));
+        }
+        assertEquals(20, server.getRequests());
+    }
+
+    @Test
+    void pooledClient_streamingRead_keepsConnectionReusable() throws Exception {
+        try (PooledCalorieApiClient client = new PooledCalorieApiClient(api)) {
+            for (int i = 0; i < 5; i++) {
+                assertEquals(new NutritionResponseParser.Match("chicken breast", 20 + Math.floorMod("chicken breast".hashCode(), 600)),
+                        client.search("chicken breast", NutritionResponseParser::parseFirst));
+            }
+            assertEquals(null, client.search("unknown dish", NutritionResponseParser::parseFirst));
+
+            assertEquals(0, client.getStatistics().get("leased"));
+            assertEquals(1, client.getStatistics().get("available"));
+        }
+    }
+
+    @Test
+    void jdkClient_streamingRead_parsesFirstResult() {
+        JdkCalorieApiClient client = new JdkCalorieApiClient(api);
+
+        assertEquals("apple", client.search("apple", NutritionResponseParser::parseFirst).text());
+    }
+
+    @Test
+    void jdkClient_returnsStubResponse() {
+        JdkCalorieApiClient client = new JdkCalorieApiClient(api);
+
+        assertEquals(StubCalorieServer.responseFor("unknown dish"), client.search("unknown dish"));
+        assertEquals(1L, client.getStatistics().get("requests"));
+    }
+
+    @Test
+    void pooledClient_slowResponse_timesOut() throws Exception {
+        server.close();
+        server = new StubCalorieServer(0, Duration.ofMillis(500)).start();
+        api.setUrl(server.getUrl());
+        api.setReadTimeout(Duration.ofMillis(100));
+
+        try (PooledCalorieApiClient client = new PooledCalorieApiClient(api)) {
+            assertThrows(ResourceAccessException.class, () -> client.search("apple"));
+        }
+    }
+
+    @Test
+    void stubWithErrorRate_answersServerError() throws Exception {
+        server.close();
+        server = new StubCalorieServer(0, StubCalorieServer.Latency.parse("0"), 1.0).start();
+        api.setUrl(server.getUrl());
+
+        JdkCalorieApiClient client = new JdkCalorieApiClient(api);
+
+        assertThrows(HttpServerErrorException.class, () -> client.search("apple"));
+        assertEquals(1, server.getInjectedErrors());
+    }
+
+    @Test
+    void latencySpec_parsesDistributions() {
+        assertEquals(50, StubCalorieServer.Latency.parse("50").nextMillis());
+        assertEquals(50, StubCalorieServer.Latency.parse("fixed:50").nextMillis());
+        for (int i = 0; i < 100; i++) {
+            long uniform = StubCalorieServer.Latency.parse("uniform:20-40").nextMillis();
+            assertTrue(uniform >= 20 && uniform <= 40, "uniform sample " + uniform);
+            assertTrue(StubCalorieServer.Latency.parse("lognormal:80/800").nextMillis() >= 0);
+        }
+        assertEquals("lognormal:80/800", StubCalorieServer.Latency.parse("lognormal:80/800").toString());
+        assertThrows(IllegalArgumentException.class, () -> StubCalorieServer.Latency.parse("uniform:20"));
+        assertThrows(IllegalArgumentException.class, () -> StubCalorieServer.Latency.parse("gamma:1"));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.tryme.client;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+class NutritionResponseParserTest {
+
+    @Test
+    void parseFirst_readsFirstResultAndSkipsOtherFields() throws IOException {
+        NutritionResponseParser.Match match = parse(
+                "{\"meta\":{\"total\":2,\"tags\":[1,2]},\"results\":[{\"id\":7,\"text\":\"Apple\",\"extra\":{\"a\":[1]},\"cal\":52},"
+                        + "{\"text\":\"Apple juice\",\"cal\":46}]}");
+
+        assertEquals(new NutritionResponseParser.Match("Apple", 52), match);
+    }
+
+    @Test
+    void parseFirst_noResults_returnsNull() throws IOException {
+        assertNull(parse("{\"results\":[]}"));
+        assertNull(parse("{\"results\":{}}"));
+        assertNull(parse("{\"error\":\"nothing\"}"));
+        assertNull(parse(""));
+    }
+
+    @Test
+    void parseFirst_missingOrNonNumericFields_useDefaults() throws IOException {
+        assertEquals(new NutritionResponseParser.Match(null, 0), parse("{\"results\":[{\"text\":null,\"cal\":\"n/a\"}]}"));
+        assertEquals(new NutritionResponseParser.Match("Rice", 130), parse("{\"results\":[{\"text\":\"Rice\",\"cal\":\"130\"}]}"));
+    }
+
+    @Test
+    void parseFirst_stopsAfterFirstResult() throws IOException {
+        // Хвост после первого результата не читается, поэтому ошибка в нем не мешает.
+        CountingInputStream body = new CountingInputStream(
+                "{\"results\":[{\"text\":\"Pear\",\"cal\":57},{\"text\":" + "x".repeat(100_000));
+
+        assertEquals(new NutritionResponseParser.Match("Pear", 57), NutritionResponseParser.parseFirst(body));
+        assertEquals(false, body.closed);
+        assertEquals(true, body.read < 100_000, "read " + body.read + " bytes");
+    }
+
+    @Test
+    void parseFirst_malformedBeforeFirstResult_throws() {
+        assertThrows(JsonProcessingException.class, () -> parse("{\"results\":[{\"text\" \"Apple\"}]}"));
+    }
+
+    private static NutritionResponseParser.Match parse(String json) throws IOException {
+        return NutritionResponseParser.parseFirst(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static final class CountingInputStream extends InputStream {
+        private final InputStream delegate;
+        private long read;
+        private boolean closed;
+
+        CountingInputStream(String content) {
+            this.delegate = new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = delegate.read();
+            if (value >= 0) {
+                read++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count = delegate.read(buffer, offset, length);
+            if (count > 0) {
+                read += count;
+            }
+            return count;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.tryme.client;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import com.example.tryme.config.CaloriesProperties;
+
+@ExtendWith(MockitoExtension.class)
+class ResilientCalorieApiClientTest {
+
+    @Mock
+    private CalorieApiClient delegate;
+
+    private CaloriesProperties.Resilience resilience;
+
+    @BeforeEach
+    void setUp() {
+        resilience = new CaloriesProperties.Resilience();
+        resilience.setInitialBackoff(Duration.ofMillis(1));
+        resilience.setSlidingWindowSize(4);
+        resilience.setMinimumNumberOfCalls(4);
+        resilience.setWaitDurationInOpenState(Duration.ofMinutes(1));
+    }
+
+    @Test
+    void search_serverErrorThenSuccess_isRetried() {
+        when(delegate.search("apple"))
+                .thenThrow(HttpServerErrorException.create(HttpStatus.BAD_GATEWAY, "Bad Gateway", null, null, StandardCharsets.UTF_8))
+                .thenReturn("{\"results\":[]}");
+        ResilientCalorieApiClient client = new ResilientCalorieApiClient(delegate, resilience);
+
+        assertEquals("{\"results\":[]}", client.search("apple"));
+        verify(delegate, times(2)).search("apple");
+    }
+
+    @Test
+    void search_clientError_isNotRetried() {
+        when(delegate.search("apple"))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "Bad Request", null, null, StandardCharsets.UTF_8));
+        ResilientCalorieApiClient client = new ResilientCalorieApiClient(delegate, resilience);
+
+        assertThrows(HttpClientErrorException.class, () -> client.search("apple"));
+        verify(delegate, times(1)).search("apple");
+    }
+
+    @Test
+    void search_repeatedFailures_openCircuitAndStopCallingDelegate() {
+        resilience.setMaxAttempts(1);
+        when(delegate.search("apple"))
+                .thenThrow(HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "Unavailable", null, null, StandardCharsets.UTF_8));
+        when(delegate.getStatistics()).thenReturn(Map.of());
+        ResilientCalorieApiClient client = new ResilientCalorieApiClient(delegate, resilience);
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(HttpServerErrorException.class, () -> client.search("apple"));
+        }
+
+        assertThrows(CalorieApiUnavailableException.class, () -> client.search("apple"));
+        verify(delegate, times(4)).search("apple");
+        assertEquals("OPEN", client.getStatistics().get("circuitState"));
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.tryme.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.tryme.config.CacheProperties;
+import com.example.tryme.services.CacheService;
+
+class CacheServiceTest {
+
+    private CacheService cacheService;
+
+    @BeforeEach
+    void setUp() {
+        CacheProperties properties = new CacheProperties();
+        properties.getNames().put("small", new CacheProperties.Spec(10L, null, null));
+        properties.getNames().put("short", new CacheProperties.Spec(null, Duration.ofMillis(1), null));
+        cacheService = new CacheService(properties);
+    }
+
+    @Test
+    void putToCache_thenGetFromCache_returnsValue() {
+        cacheService.putToCache("products", "id:1", List.of("Apple"));
+
+        List<String> result = cacheService.getFromCache("products", "id:1");
+
+        assertEquals(List.of("Apple"), result);
+        assertNull(cacheService.getFromCache("meals", "id:1"));
+    }
+
+    @Test
+    void clearCache_removesOnlyRequestedNamespace() {
+        cacheService.putToCache("products", "all", List.of("Apple"));
+        cacheService.putToCache("meals", "all", List.of("Pasta"));
+
+        cacheService.clearCache("products");
+
+        assertNull(cacheService.getFromCache("products", "all"));
+        assertEquals(List.of("Pasta"), cacheService.getFromCache("meals", "all"));
+    }
+
+    @Test
+    void clearCache_keepsStatisticsAndAcceptsNewEntries() {
+        cacheService.putToCache("products", "id:1", List.of("Apple"));
+        cacheService.getFromCache("products", "id:1");
+
+        cacheService.clearCache("products");
+        cacheService.clearCache("unknown");
+        cacheService.putToCache("products", "id:2", List.of("Pear"));
+
+        Map<String, Object> stats = cacheService.getStatistics().get("products");
+        assertEquals(1L, stats.get("hitCount"));
+        assertEquals(1L, stats.get("size"));
+        assertEquals(List.of("Pear"), cacheService.getFromCache("products", "id:2"));
+    }
+
+    @Test
+    void invalidateDependents_evictsOnlyQueriesContainingEntity() {
+        cacheService.putToCache("products", "name:app", List.of("Apple"), List.of(1L));
+        cacheService.putToCache("products", "name:pea", List.of("Pear"), List.of(2L));
+        cacheService.putToCache("products", "id:1", List.of("Apple"));
+
+        cacheService.invalidateDependents("products", 1L);
+
+        assertNull(cacheService.getFromCache("products", "name:app"));
+        assertEquals(List.of("Pear"), cacheService.getFromCache("products", "name:pea"));
+        assertEquals(List.of("Apple"), cacheService.getFromCache("products", "id:1"));
+    }
+
+    @Test
+    void evictIf_matchesOnlyTrackedQueries() {
+        cacheService.putToCache("products", "name:app", List.of("Apple"), List.of(1L));
+        cacheService.putToCache("products", "name:pea", List.of("Pear"), List.of(2L));
+        cacheService.putToCache("products", "id:1", List.of("Apple"));
+
+        cacheService.evictIf("products", key -> key.startsWith("name:") || key.startsWith("id:"));
+
+        assertNull(cacheService.getFromCache("products", "name:app"));
+        assertNull(cacheService.getFromCache("products", "name:pea"));
+        assertEquals(List.of("Apple"), cacheService.getFromCache("products", "id:1"));
+        assertEquals(0, cacheService.getStatistics().get("products").get("trackedQueries"));
+    }
+
+    @Test
+    void putToCache_withoutDependencies_dropsRegistrationsOfReplacedEntry() {
+        cacheService.putToCache("products", "name:app", List.of("Apple"), List.of(7L));
+        cacheService.putToCache("products", "name:app", List.of("Apricot"));
+
+        cacheService.invalidateDependents("products", 7L);
+        cacheService.evictIf("products", key -> key.startsWith("name:"));
+
+        assertEquals(List.of("Apricot"), cacheService.getFromCache("products", "name:app"));
+        assertEquals(0, cacheService.getStatistics().get("products").get("trackedQueries"));
+    }
+
+    @Test
+    void putToCache_respectsMaximumWeightOfNamespace() {
+        for (int i = 0; i < 1_000; i++) {
+            cacheService.putToCache("small", "name:" + i, List.of(i, i));
+        }
+
+        Map<String, Object> stats = cacheService.getStatistics().get("small");
+
+        assertTrue((Long) stats.get("size") <= 5);
+        assertTrue((Long) stats.get("evictionCount") > 0);
+    }
+
+    @Test
+    void getFromCache_expiredEntry_returnsNull() throws InterruptedException {
+        cacheService.putToCache("short", "id:1", List.of("Apple"));
+
+        Thread.sleep(20);
+
+        assertNull(cacheService.getFromCache("short", "id:1"));
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.tryme.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjIntConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.tryme.config.CaloriesProperties;
+import com.example.tryme.dto.CalorieJobDto;
+import com.example.tryme.exception.BadRequestException;
+import com.example.tryme.exception.ResourceNotFoundException;
+import com.example.tryme.exception.TooManyRequestsException;
+import com.example.tryme.services.CalorieJobService;
+import com.example.tryme.services.CaloriesService;
+
+@ExtendWith(MockitoExtension.class)
+class CalorieJobServiceTest {
+
+    @Mock
+    private CaloriesService caloriesService;
+
+    private CalorieJobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        CaloriesProperties properties = new CaloriesProperties();
+        properties.getJobs().setPoolSize(1);
+        properties.getJobs().setQueueCapacity(1);
+        properties.getJobs().setRetention(Duration.ofMinutes(1));
+        jobService = new CalorieJobService(caloriesService, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobService.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void submit_runsCalculationAndReportsProgress() throws Exception {
+        String[] food = {"apple", "pear"};
+        Integer[] gram = {100, 200};
+        when(caloriesService.calculateCalories(eq(2), eq(food), eq(gram), any(ObjIntConsumer.class)))
+                .thenAnswer(invocation -> {
+                    ObjIntConsumer<String> listener = invocation.getArgument(3);
+                    listener.accept("Apple / cal/100g: 52", 0);
+                    listener.accept("Pear / cal/100g: 57", 1);
+                    return List.of("100g. Apple", "200g. Pear", "Total calories: 166");
+                });
+
+        CalorieJobDto submitted = jobService.submit(2, food, gram);
+        CalorieJobDto done = awaitFinished(submitted.id());
+
+        assertEquals("DONE", done.status());
+        assertEquals(2, done.completedItems());
+        assertEquals(2, done.totalItems());
+        assertEquals("Total calories: 166", done.result().get(2));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void submit_recordsFailure() throws Exception {
+        when(caloriesService.calculateCalories(eq(1), any(String[].class), any(Integer[].class), any(ObjIntConsumer.class)))
+                .thenThrow(new BadRequestException("Нет данных"));
+
+        CalorieJobDto failed = awaitFinished(jobService.submit(1, new String[] {"x"}, new Integer[] {10}).id());
+
+        assertEquals("FAILED", failed.status());
+        assertEquals("Нет данных", failed.error());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void submit_recordsFailureOnError() throws Exception {
+        when(caloriesService.calculateCalories(eq(1), any(String[].class), any(Integer[].class), any(ObjIntConsumer.class)))
+                .thenThrow(new NoClassDefFoundError("com/example/Missing"));
+
+        CalorieJobDto failed = awaitFinished(jobService.submit(1, new String[] {"x"}, new Integer[] {10}).id());
+
+        assertEquals("FAILED", failed.status());
+        assertEquals("com/example/Missing", failed.error());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void submit_rejectsWhenQueueIsFull() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(caloriesService.calculateCalories(eq(1), any(String[].class), any(Integer[].class), any(ObjIntConsumer.class)))
+                .thenAnswer(invocation -> {
+                    started.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return List.of("Total calories: 0");
+                });
+        String[] food = {"x"};
+        Integer[] gram = {10};
+
+        CalorieJobDto running = jobService.submit(1, food, gram);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        jobService.submit(1, food, gram);
+
+        assertThrows(TooManyRequestsException.class, () -> jobService.submit(1, food, gram));
+        assertEquals(1L, jobService.getStatistics().get("rejected"));
+        release.countDown();
+        assertEquals("DONE", awaitFinished(running.id()).status());
+    }
+
+    @Test
+    void getJob_unknownIdThrowsNotFound() {
+        assertThrows(ResourceNotFoundException.class, () -> jobService.getJob("missing"));
+    }
+
+    private CalorieJobDto awaitFinished(String id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        CalorieJobDto job = jobService.getJob(id);
+        while (job.finishedAt() == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            job = jobService.getJob(id);
+        }
+        return job;
+    }
+}
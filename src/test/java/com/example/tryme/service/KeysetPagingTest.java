@@ -0,0 +1,61 @@
+package com.example.tryme.service;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.example.tryme.dto.CursorPage;
+import com.example.tryme.exception.BadRequestException;
+import com.example.tryme.services.KeysetPaging;
+
+class KeysetPagingTest {
+
+    @Test
+    void toPage_cutsLookaheadRowAndSetsCursor() {
+        CursorPage<Long> page = KeysetPaging.toPage(List.of(10L, 20L, 30L), 2, id -> id);
+        CursorPage<Long> last = KeysetPaging.toPage(List.of(10L, 20L), 2, id -> id);
+
+        assertEquals(List.of(10L, 20L), page.items());
+        assertEquals(20L, page.nextCursor());
+        assertEquals(List.of(10L, 20L), last.items());
+        assertNull(last.nextCursor());
+    }
+
+    @Test
+    void pagesReaching_evictsOnlyPagesWhoseRangeCoversNewIds() {
+        Predicate<String> reaching = KeysetPaging.pagesReaching(List.of(40L, 60L));
+
+        assertTrue(reaching.test(KeysetPaging.cacheKey(false, null, 50)));
+        assertTrue(reaching.test(KeysetPaging.cacheKey(false, 50L, 50)));
+        assertFalse(reaching.test(KeysetPaging.cacheKey(false, 60L, 50)));
+        assertTrue(reaching.test(KeysetPaging.cacheKey(true, null, 50)));
+        assertTrue(reaching.test(KeysetPaging.cacheKey(true, 50L, 50)));
+        assertFalse(reaching.test(KeysetPaging.cacheKey(true, 40L, 50)));
+        assertFalse(reaching.test("name:apple"));
+    }
+
+    @Test
+    void pagesReaching_unknownIdEvictsAllPages() {
+        Predicate<String> reaching = KeysetPaging.pagesReaching(Arrays.asList((Long) null));
+
+        assertTrue(reaching.test(KeysetPaging.cacheKey(false, 1_000L, 50)));
+        assertFalse(reaching.test("id:1"));
+    }
+
+    @Test
+    void checkLimitAndSort_rejectInvalidValues() {
+        assertEquals(KeysetPaging.DEFAULT_LIMIT, KeysetPaging.checkLimit(null));
+        assertThrows(BadRequestException.class, () -> KeysetPaging.checkLimit(0));
+        assertThrows(BadRequestException.class, () -> KeysetPaging.checkLimit(KeysetPaging.MAX_LIMIT + 1));
+        assertTrue(KeysetPaging.isDescending("DESC"));
+        assertFalse(KeysetPaging.isDescending(null));
+        assertThrows(BadRequestException.class, () -> KeysetPaging.isDescending("name"));
+    }
+}
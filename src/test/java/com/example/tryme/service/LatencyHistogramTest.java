@@ -0,0 +1,60 @@
+package com.example.tryme.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.example.tryme.services.LatencyHistogram;
+
+class LatencyHistogramTest {
+
+    @Test
+    void percentiles_stayWithinRelativeErrorOfBucketWidth() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histogram.record(micros * 1_000);
+        }
+
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000, histogram.getMaxMicros());
+        assertWithin(5_000, histogram.percentileMicros(0.5));
+        assertWithin(9_000, histogram.percentileMicros(0.9));
+        assertWithin(9_900, histogram.percentileMicros(0.99));
+        assertEquals(10_000, histogram.percentileMicros(1.0));
+    }
+
+    @Test
+    void percentile_neverExceedsObservedMaximum() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000_123_000L);
+
+        assertEquals(1_000_123, histogram.percentileMicros(0.5));
+        assertEquals(1_000_123, histogram.getSumMicros());
+    }
+
+    @Test
+    void hugeAndNegativeDurationsAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(0, histogram.percentileMicros(0.5));
+        assertEquals(Long.MAX_VALUE / 1_000, histogram.getMaxMicros());
+        assertEquals((1L << 41) - 1, histogram.percentileMicros(0.99));
+    }
+
+    @Test
+    void reset_clearsAllBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(42_000);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.percentileMicros(0.99));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected * 1.125,
+                "expected ~" + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.tryme.service;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.tryme.Model.Meal;
+import com.example.tryme.Model.MealProduct;
+import com.example.tryme.Model.Product;
+import com.example.tryme.Repository.MealProductRepository;
+import com.example.tryme.Repository.MealRepository;
+import com.example.tryme.Repository.ProductRepository;
+import com.example.tryme.services.MealCompositionWriter;
+import com.example.tryme.services.ProductNameIndex;
+
+@ExtendWith(MockitoExtension.class)
+class MealCompositionWriterTest {
+
+    @Mock
+    private MealRepository mealRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private MealProductRepository mealProductRepository;
+
+    @Mock
+    private ProductNameIndex productNameIndex;
+
+    @InjectMocks
+    private MealCompositionWriter writer;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void write_reusesResolvedProductsWithoutQueryingAgain() {
+        Product apple = new Product("Apple", 52);
+        when(mealRepository.save(any(Meal.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        MealCompositionWriter.Result result = writer.write("Lunch", List.of(
+                new MealCompositionWriter.Item(apple, "Apple", 52, 150),
+                new MealCompositionWriter.Item(apple, "Apple", 52, 50)));
+
+        verify(productNameIndex, never()).findFirstByNameContainingIgnoreCase(anyString());
+        ArgumentCaptor<List<MealProduct>> captor = ArgumentCaptor.forClass(List.class);
+        verify(mealProductRepository).saveAll(captor.capture());
+        assertEquals(2, captor.getValue().size());
+        assertSame(result.meal(), captor.getValue().get(0).getMeal());
+        assertEquals(List.of(apple, apple), result.products());
+        assertEquals(List.of(), result.createdProducts());
+        assertEquals(104L, result.meal().getTotalCalories());
+        assertEquals(2, result.meal().getItemCount());
+    }
+
+    @Test
+    void write_createsMissingProductOncePerName() {
+        when(mealRepository.save(any(Meal.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(productNameIndex.findFirstByNameContainingIgnoreCase("Pear")).thenReturn(Optional.empty());
+
+        MealCompositionWriter.Result result = writer.write("Dinner", List.of(
+                new MealCompositionWriter.Item(null, "Pear", 57, 100),
+                new MealCompositionWriter.Item(null, "pear", 57, 200)));
+
+        verify(productNameIndex, times(1)).findFirstByNameContainingIgnoreCase(anyString());
+        assertEquals(1, result.createdProducts().size());
+        assertSame(result.products().get(0), result.products().get(1));
+        verify(productRepository).saveAll(result.createdProducts());
+    }
+}
@@ -5,12 +5,14 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import static org.mockito.Mockito.mock;
@@ -18,9 +20,14 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 
 import com.example.tryme.Model.Meal;
 import com.example.tryme.Repository.MealRepository;
+import com.example.tryme.dto.CursorPage;
+import com.example.tryme.dto.MealDetailDto;
+import com.example.tryme.dto.MealDto;
+import com.example.tryme.dto.MealItemDto;
 import com.example.tryme.exception.ResourceNotFoundException;
 import com.example.tryme.services.CacheService;
 import com.example.tryme.services.MealService;
@@ -57,7 +64,7 @@ class MealServiceTest {
         assertEquals(2, result.size());
         assertEquals("Meal 'Pasta' created with ID: 1", result.get(0));
         assertEquals("Meal 'Salad' created with ID: 2", result.get(1));
-        verify(cacheService, times(1)).clearCache("meals");
+        verify(cacheService, times(1)).evictIf(eq("meals"), any());
         verify(mealRepository, times(1)).saveAll(anyList());
         assertEquals(2, captor.getValue().size());
         assertEquals("Pasta", captor.getValue().get(0).getName());
@@ -75,7 +82,7 @@ class MealServiceTest {
         String result = mealService.createMeal(mealName);
 
         assertEquals("Meal 'Pasta' created with ID: 1", result);
-        verify(cacheService, times(1)).clearCache("meals");
+        verify(cacheService, times(1)).evictIf(eq("meals"), any());
         verify(mealRepository, times(1)).save(any(Meal.class));
     }
 
@@ -122,7 +129,7 @@ class MealServiceTest {
         String result = mealService.updateMeal(id, newName);
 
         assertEquals("Meal updated to 'New Pasta'", result);
-        verify(cacheService, times(1)).clearCache("meals");
+        verify(cacheService, times(1)).invalidateDependents("meals", id);
         verify(mealRepository, times(1)).findById(id);
         verify(mealRepository, times(1)).save(any(Meal.class));
     }
@@ -136,29 +143,54 @@ class MealServiceTest {
         String result = mealService.deleteMeal(id);
 
         assertEquals("Meal deleted", result);
-        verify(cacheService, times(1)).clearCache("meals");
+        verify(cacheService, times(1)).evict("meals", "id:" + id);
+        verify(cacheService, times(1)).invalidateDependents("meals", id);
         verify(mealRepository, times(1)).findById(id);
         verify(mealRepository, times(1)).delete(meal);
     }
 
     @Test
-    void getAllMeals_success() {
-        Meal meal1 = mock(Meal.class);
-        when(meal1.getName()).thenReturn("Pasta");
-        Meal meal2 = mock(Meal.class);
-        when(meal2.getName()).thenReturn("Salad");
-        List<Meal> meals = Arrays.asList(meal1, meal2);
-        when(cacheService.getFromCache("meals", "all")).thenReturn(null);
-        when(mealRepository.findAll()).thenReturn(meals);
+    void getMealsPage_returnsLimitRowsAndNextCursor() {
+        MealDto meal1 = new MealDto(1L, "Pasta");
+        MealDto meal2 = new MealDto(2L, "Salad");
+        MealDto meal3 = new MealDto(3L, "Soup");
+        List<MealDto> rows = Arrays.asList(meal1, meal2, meal3);
+        when(cacheService.getFromCache("meals", "page:asc::2")).thenReturn(null);
+        when(mealRepository.findPageAfter(Long.MIN_VALUE, Limit.of(3))).thenReturn(rows);
+
+        CursorPage<MealDto> page = mealService.getMealsPage(null, 2, false);
+
+        assertEquals(List.of(meal1, meal2), page.items());
+        assertEquals(2L, page.nextCursor());
+        verify(cacheService, times(1)).putToCache("meals", "page:asc::2", rows, List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void getMealsPage_lastPageHasNoCursor() {
+        List<MealDto> rows = List.of(new MealDto(4L, "Pasta"));
+        when(cacheService.<MealDto>getFromCache("meals", "page:desc:5:2")).thenReturn(rows);
 
-        List<Meal> result = mealService.getAllMeals();
+        CursorPage<MealDto> page = mealService.getMealsPage(5L, 2, true);
 
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        assertEquals("Pasta", result.get(0).getName());
-        assertEquals("Salad", result.get(1).getName());
-        verify(cacheService, times(1)).getFromCache("meals", "all");
-        verify(cacheService, times(1)).putToCache("meals", "all", meals);
-        verify(mealRepository, times(1)).findAll();
+        assertEquals(rows, page.items());
+        assertNull(page.nextCursor());
+        verify(mealRepository, times(0)).findPageBefore(any(), any());
+    }
+
+    @Test
+    void getMealDetail_buildsItemsFromSingleQuery() {
+        List<Object[]> rows = List.of(
+                new Object[] {1L, "Lunch", 10L, 100L, "Apple", 52, 150, 3L},
+                new Object[] {1L, "Lunch", 11L, 101L, "Pear", 57, 100, 3L});
+        when(cacheService.getFromCache("meals", "detail:1")).thenReturn(null);
+        when(mealRepository.findDetailRows(1L)).thenReturn(rows);
+
+        MealDetailDto detail = mealService.getMealDetail(1L);
+
+        assertEquals("Lunch", detail.name());
+        assertEquals(3L, detail.version());
+        assertEquals(List.of(new MealItemDto(10L, 100L, "Apple", 52, 150), new MealItemDto(11L, 101L, "Pear", 57, 100)),
+                detail.items());
+        verify(cacheService, times(1)).putToCache("meals", "detail:1", List.of(detail), List.of(1L));
     }
-}
\ No newline at end of file
+}
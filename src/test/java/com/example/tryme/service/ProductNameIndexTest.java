@@ -0,0 +1,100 @@
+package com.example.tryme.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import static org.mockito.Mockito.when;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.example.tryme.Model.Product;
+import com.example.tryme.Repository.ProductRepository;
+import com.example.tryme.config.CacheProperties;
+import com.example.tryme.services.CacheService;
+import com.example.tryme.services.MealService;
+import com.example.tryme.services.ProductNameIndex;
+import com.example.tryme.services.ProductService;
+
+@ExtendWith(MockitoExtension.class)
+class ProductNameIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private MealService mealService;
+
+    private ProductNameIndex index;
+
+    @BeforeEach
+    void setUp() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[] {3L, "Apple pie"});
+        rows.add(new Object[] {1L, "Green apple"});
+        rows.add(new Object[] {2L, "Pear"});
+        rows.add(new Object[] {4L, "Яблоко"});
+        when(productRepository.findAllIdsAndNames()).thenReturn(rows);
+        index = new ProductNameIndex(productRepository);
+    }
+
+    @Test
+    void search_matchesSubstringIgnoringCase() {
+        assertEquals(List.of(1L, 3L), index.search("APPLE"));
+        assertEquals(List.of(1L, 3L), index.search("ppl"));
+        assertEquals(List.of(4L), index.search("ЯБЛ"));
+        assertEquals(List.of(), index.search("apples"));
+    }
+
+    @Test
+    void search_shortTermsAndEmptyTermScanAllNames() {
+        assertEquals(List.of(1L, 2L, 3L), index.search("e"));
+        assertEquals(List.of(1L, 2L, 3L, 4L), index.search(""));
+    }
+
+    @Test
+    void search_multiWordTermRequiresContiguousMatch() {
+        assertEquals(List.of(1L), index.search("n app"));
+        assertEquals(List.of(), index.search("apple green"));
+    }
+
+    @Test
+    void putAndRemove_keepIndexInSync() {
+        index.search("pear");
+        Product renamed = new Product("Prickly pear", 40);
+        renamed.setId(1L);
+
+        index.put(renamed);
+        index.remove(2L);
+
+        assertEquals(List.of(1L), index.search("pear"));
+        assertEquals(List.of(3L), index.search("apple"));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void onProductSaved_evictsNameQueriesIndependentlyOfDefaultLocale() {
+        Locale previous = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr"));
+        try {
+            CacheService cacheService = new CacheService(new CacheProperties());
+            ProductService productService = new ProductService(productRepository, cacheService, index, mealService);
+            index.warmUp();
+            cacheService.putToCache("products", "name:i", List.of(), List.of());
+            Product product = new Product("ICE", 0);
+            product.setId(5L);
+
+            productService.onProductSaved(product);
+
+            assertNull(cacheService.getFromCache("products", "name:i"));
+            assertEquals(List.of(5L), index.search("ice"));
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+}
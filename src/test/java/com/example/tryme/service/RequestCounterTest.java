@@ -0,0 +1,50 @@
+package com.example.tryme.service;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.example.tryme.services.RequestCounter;
+
+class RequestCounterTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void record_groupsByEndpointAndStatus() {
+        RequestCounter counter = new RequestCounter();
+        counter.record("GET", "/meals/{id}", 200, 2_000_000);
+        counter.record("GET", "/meals/{id}", 404, 1_000_000);
+        counter.record("POST", "/meals/create", 500, 3_000_000);
+
+        assertEquals(3, counter.getTotalRequests());
+        assertEquals(1, counter.getSuccessfulRequests());
+        assertEquals(2, counter.getFailedRequests());
+        assertEquals(1, counter.getClientErrors());
+        assertEquals(1, counter.getServerErrors());
+        Map<String, Object> meal = counter.getEndpointStatistics().get("GET /meals/{id}");
+        assertEquals(2L, meal.get("requests"));
+        assertEquals(1L, meal.get("clientErrors"));
+        assertEquals(0L, meal.get("serverErrors"));
+        assertEquals(1L, ((Map<String, Object>) meal.get("statuses")).get("404"));
+        assertEquals(2.0, ((Map<String, Object>) meal.get("latencyMs")).get("max"));
+        assertEquals(1L, counter.getEndpointStatistics().get("POST /meals/create").get("serverErrors"));
+    }
+
+    @Test
+    void toPrometheus_writesCountersAndSummary() {
+        RequestCounter counter = new RequestCounter();
+        counter.record("GET", "/products/{id}", 200, 1_500_000);
+        counter.record("GET", "/products/{id}", 404, 500_000);
+
+        String text = counter.toPrometheus();
+
+        assertTrue(text.contains("http_server_requests_total{method=\"GET\",uri=\"/products/{id}\",status=\"200\"} 1\n"));
+        assertTrue(text.contains("http_server_request_errors_total{method=\"GET\",uri=\"/products/{id}\",class=\"4xx\"} 1\n"));
+        assertTrue(text.contains("http_server_request_errors_total{method=\"GET\",uri=\"/products/{id}\",class=\"5xx\"} 0\n"));
+        assertTrue(text.contains("http_server_request_duration_seconds_count{method=\"GET\",uri=\"/products/{id}\"} 2\n"));
+        assertTrue(text.contains("http_server_request_duration_seconds_max{method=\"GET\",uri=\"/products/{id}\"} 0.0015\n"));
+        assertTrue(text.contains("# TYPE http_server_request_duration_seconds summary\n"));
+    }
+}
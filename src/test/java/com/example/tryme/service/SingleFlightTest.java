@@ -0,0 +1,92 @@
+package com.example.tryme.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.Test;
+
+import com.example.tryme.exception.BadRequestException;
+import com.example.tryme.services.SingleFlight;
+
+class SingleFlightTest {
+
+    @Test
+    void execute_concurrentCallsWithSameKey_shareOneExecution() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("chicken breast", () -> {
+                    loads.incrementAndGet();
+                    awaitQuietly(release);
+                    return "165";
+                })));
+            }
+            while (singleFlight.getExecutions() + singleFlight.getDeduplicated() < 8) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("165", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(1, singleFlight.getExecutions());
+            assertEquals(7, singleFlight.getDeduplicated());
+            assertEquals(0, singleFlight.getInFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_failure_isSharedAndNotRemembered() throws Exception {
+        SingleFlight<String, String> singleFlight = new SingleFlight<>();
+        CountDownLatch release = new CountDownLatch(1);
+        BadRequestException failure = new BadRequestException("upstream error");
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.execute("apple", () -> {
+                awaitQuietly(release);
+                throw failure;
+            }));
+            while (singleFlight.getExecutions() < 1) {
+                Thread.sleep(5);
+            }
+            Future<String> follower = executor.submit(() -> singleFlight.execute("apple", () -> "should not run"));
+            while (singleFlight.getDeduplicated() < 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            ExecutionException leaderError = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+            ExecutionException followerError = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertSame(failure, leaderError.getCause());
+            assertSame(failure, followerError.getCause());
+            assertEquals("52", singleFlight.execute("apple", () -> "52"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}